@@ -9,7 +9,8 @@ CREATE TABLE IF NOT EXISTS patient_records (
     email VARCHAR(255),
     password_hash VARCHAR(255),
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
-    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_patient_name (last_name, first_name)
 );
 
 CREATE TABLE IF NOT EXISTS doctor_records (
@@ -39,7 +40,10 @@ CREATE TABLE IF NOT EXISTS branch_records (
     latitude DECIMAL(9,6),
     longitude DECIMAL(9,6),
     capacity INT,
-    contact_number VARCHAR(15)
+    contact_number VARCHAR(15),
+    -- findWithinRadius bounding-box prefilter; (0, 0) stands in for missing coordinates.
+    location POINT AS (POINT(COALESCE(longitude, 0), COALESCE(latitude, 0))) STORED NOT NULL SRID 0,
+    SPATIAL INDEX idx_branch_location (location)
 );
 
 CREATE TABLE IF NOT EXISTS doctor_branch_assignment (
@@ -50,6 +54,15 @@ CREATE TABLE IF NOT EXISTS doctor_branch_assignment (
     FOREIGN KEY (branch_id) REFERENCES branch_records(branch_id) ON DELETE CASCADE
 );
 
+CREATE TABLE IF NOT EXISTS doctor_specialization (
+    doctor_id INT NOT NULL,
+    specialization_id INT NOT NULL,
+    PRIMARY KEY (doctor_id, specialization_id),
+    INDEX idx_doctor_specialization_spec (specialization_id, doctor_id),
+    FOREIGN KEY (doctor_id) REFERENCES doctor_records(doctor_id) ON DELETE CASCADE,
+    FOREIGN KEY (specialization_id) REFERENCES specialization_records(specialization_id) ON DELETE CASCADE
+);
+
 CREATE TABLE IF NOT EXISTS appointment_records (
     appointment_id INT AUTO_INCREMENT PRIMARY KEY,
     patient_id INT NOT NULL,
@@ -62,7 +75,12 @@ CREATE TABLE IF NOT EXISTS appointment_records (
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (patient_id) REFERENCES patient_records(patient_id),
     FOREIGN KEY (doctor_id) REFERENCES doctor_records(doctor_id),
-    FOREIGN KEY (branch_id) REFERENCES branch_records(branch_id)
+    FOREIGN KEY (branch_id) REFERENCES branch_records(branch_id),
+    INDEX idx_appointment_doctor_datetime (doctor_id, appointment_datetime),
+    INDEX idx_appointment_patient_datetime (patient_id, appointment_datetime),
+    INDEX idx_appointment_branch_datetime (branch_id, appointment_datetime),
+    INDEX idx_appointment_status_datetime (status, appointment_datetime),
+    INDEX idx_appointment_datetime (appointment_datetime)
 );
 
 CREATE TABLE IF NOT EXISTS queue_records (
@@ -73,6 +91,18 @@ CREATE TABLE IF NOT EXISTS queue_records (
     status ENUM('waiting', 'called', 'served', 'no_show') DEFAULT 'waiting',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (patient_id) REFERENCES patient_records(patient_id),
+    FOREIGN KEY (branch_id) REFERENCES branch_records(branch_id),
+    INDEX idx_queue_branch_created (branch_id, created_at),
+    INDEX idx_queue_branch_status_created (branch_id, status, created_at),
+    INDEX idx_queue_patient_created (patient_id, created_at),
+    INDEX idx_queue_created (created_at)
+);
+
+CREATE TABLE IF NOT EXISTS queue_number_sequence (
+    branch_id INT NOT NULL,
+    queue_date DATE NOT NULL,
+    last_number INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (branch_id, queue_date),
     FOREIGN KEY (branch_id) REFERENCES branch_records(branch_id)
 );
 
@@ -85,7 +115,9 @@ CREATE TABLE IF NOT EXISTS consultation_records (
     treatment_plan TEXT,
     prescription TEXT,
     follow_up_date DATETIME,
-    FOREIGN KEY (appointment_id) REFERENCES appointment_records(appointment_id)
+    FOREIGN KEY (appointment_id) REFERENCES appointment_records(appointment_id),
+    INDEX idx_consultation_appointment_start (appointment_id, start_time),
+    INDEX idx_consultation_start (start_time)
 );
 
 CREATE TABLE IF NOT EXISTS recommendation_records (
@@ -252,6 +284,7 @@ DELETE FROM recommendation_records;
 DELETE FROM consultation_records;
 DELETE FROM appointment_records;
 DELETE FROM queue_records;
+DELETE FROM queue_number_sequence;
 DELETE FROM doctor_branch_assignment;
 DELETE FROM doctor_records;
 DELETE FROM patient_records;
@@ -344,6 +377,11 @@ INSERT INTO doctor_branch_assignment (doctor_id, branch_id) VALUES
 (7, 2), (7, 3),
 (8, 1), (8, 5), (8, 6);
 
+INSERT INTO doctor_specialization (doctor_id, specialization_id)
+SELECT d.doctor_id, js.specialization_id
+FROM doctor_records d,
+     JSON_TABLE(d.specializations_list, '$[*]' COLUMNS (specialization_id INT PATH '$')) js;
+
 INSERT IGNORE INTO user_roles (role_name, description) VALUES
 ('PATIENT','Patient role for booking appointments and managing records'),
 ('DOCTOR','Doctor role for managing appointments and consultations'),
@@ -6,7 +6,8 @@ CREATE TABLE IF NOT EXISTS patient_records (
     email VARCHAR(255),
     password_hash VARCHAR(255),
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
-    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_patient_name (last_name, first_name)
 );
 
 CREATE TABLE IF NOT EXISTS doctor_records (
@@ -36,7 +37,10 @@ CREATE TABLE IF NOT EXISTS branch_records (
     latitude DECIMAL(9,6),
     longitude DECIMAL(9,6),
     capacity INT,
-    contact_number VARCHAR(15)
+    contact_number VARCHAR(15),
+    -- findWithinRadius bounding-box prefilter; (0, 0) stands in for missing coordinates.
+    location POINT AS (POINT(COALESCE(longitude, 0), COALESCE(latitude, 0))) STORED NOT NULL SRID 0,
+    SPATIAL INDEX idx_branch_location (location)
 );
 
 CREATE TABLE IF NOT EXISTS doctor_branch_assignment (
@@ -45,4 +49,13 @@ CREATE TABLE IF NOT EXISTS doctor_branch_assignment (
     PRIMARY KEY (doctor_id, branch_id),
     FOREIGN KEY (doctor_id) REFERENCES doctor_records(doctor_id) ON DELETE CASCADE,
     FOREIGN KEY (branch_id) REFERENCES branch_records(branch_id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS doctor_specialization (
+    doctor_id INT NOT NULL,
+    specialization_id INT NOT NULL,
+    PRIMARY KEY (doctor_id, specialization_id),
+    INDEX idx_doctor_specialization_spec (specialization_id, doctor_id),
+    FOREIGN KEY (doctor_id) REFERENCES doctor_records(doctor_id) ON DELETE CASCADE,
+    FOREIGN KEY (specialization_id) REFERENCES specialization_records(specialization_id) ON DELETE CASCADE
 );
\ No newline at end of file
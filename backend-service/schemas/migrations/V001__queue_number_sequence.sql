@@ -0,0 +1,18 @@
+-- V001: per-branch, per-day queue number counters.
+-- Replaces MAX(queue_number) scans with an atomic upsert on a single row per branch and day.
+USE primary_db;
+
+CREATE TABLE IF NOT EXISTS queue_number_sequence (
+    branch_id INT NOT NULL,
+    queue_date DATE NOT NULL,
+    last_number INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (branch_id, queue_date),
+    FOREIGN KEY (branch_id) REFERENCES branch_records(branch_id)
+);
+
+-- Carry over numbers already issued so new tickets continue after them.
+INSERT INTO queue_number_sequence (branch_id, queue_date, last_number)
+SELECT branch_id, DATE(created_at), MAX(queue_number)
+FROM queue_records
+GROUP BY branch_id, DATE(created_at)
+ON DUPLICATE KEY UPDATE last_number = GREATEST(last_number, VALUES(last_number));
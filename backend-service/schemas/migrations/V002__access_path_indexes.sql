@@ -0,0 +1,38 @@
+-- V002: secondary indexes matching the DAO access paths.
+-- For databases created before these indexes were added to core_records.sql / transaction_records.sql;
+-- fresh installs from those files already have them.
+-- InnoDB appends the primary key to every secondary index, so (col) also serves keyset pages on (col, id).
+-- The implicit single-column foreign key indexes are dropped by InnoDB once a composite index can serve them.
+USE primary_db;
+
+-- Admin patient list pages by (last_name, first_name, patient_id).
+ALTER TABLE patient_records
+    ADD INDEX idx_patient_name (last_name, first_name);
+
+ALTER TABLE appointment_records
+    -- findByDoctorId, findByDoctorAndDateRange, findTodaysAppointmentsByDoctor, branch search windows
+    ADD INDEX idx_appointment_doctor_datetime (doctor_id, appointment_datetime),
+    -- findByPatientId
+    ADD INDEX idx_appointment_patient_datetime (patient_id, appointment_datetime),
+    -- findByBranchId
+    ADD INDEX idx_appointment_branch_datetime (branch_id, appointment_datetime),
+    -- findByStatus
+    ADD INDEX idx_appointment_status_datetime (status, appointment_datetime),
+    -- findAll and keyset pages by (appointment_datetime, appointment_id)
+    ADD INDEX idx_appointment_datetime (appointment_datetime);
+
+ALTER TABLE queue_records
+    -- findByBranchId, findTodaysQueueByBranch
+    ADD INDEX idx_queue_branch_created (branch_id, created_at),
+    -- findByBranchIdAndStatus
+    ADD INDEX idx_queue_branch_status_created (branch_id, status, created_at),
+    -- findByPatientId
+    ADD INDEX idx_queue_patient_created (patient_id, created_at),
+    -- findAll, findTodaysQueue and keyset pages by (created_at, queue_id)
+    ADD INDEX idx_queue_created (created_at);
+
+ALTER TABLE consultation_records
+    -- findByAppointmentId and the appointment joins behind findByPatientId / findByDoctorId
+    ADD INDEX idx_consultation_appointment_start (appointment_id, start_time),
+    -- findAll
+    ADD INDEX idx_consultation_start (start_time);
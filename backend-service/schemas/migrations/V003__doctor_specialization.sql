@@ -0,0 +1,19 @@
+-- V003: normalized doctor <-> specialization link table.
+-- doctor_records.specializations_list stays as the copy the application reads; the DAO writes both.
+USE primary_db;
+
+CREATE TABLE IF NOT EXISTS doctor_specialization (
+    doctor_id INT NOT NULL,
+    specialization_id INT NOT NULL,
+    PRIMARY KEY (doctor_id, specialization_id),
+    INDEX idx_doctor_specialization_spec (specialization_id, doctor_id),
+    FOREIGN KEY (doctor_id) REFERENCES doctor_records(doctor_id) ON DELETE CASCADE,
+    FOREIGN KEY (specialization_id) REFERENCES specialization_records(specialization_id) ON DELETE CASCADE
+);
+
+-- Backfill from the JSON arrays, skipping ids that no longer exist.
+INSERT IGNORE INTO doctor_specialization (doctor_id, specialization_id)
+SELECT d.doctor_id, js.specialization_id
+FROM doctor_records d,
+     JSON_TABLE(d.specializations_list, '$[*]' COLUMNS (specialization_id INT PATH '$')) js
+WHERE js.specialization_id IN (SELECT specialization_id FROM specialization_records);
@@ -0,0 +1,10 @@
+-- V004: spatial index over branch coordinates for BranchDAO.findWithinRadius.
+-- For databases created before the column was added to core_records.sql; fresh installs already have it.
+-- SPATIAL indexes need a NOT NULL column, so branches without coordinates are stored at POINT(0, 0) and
+-- excluded by the latitude/longitude IS NOT NULL check in the query. SRID 0: x = longitude, y = latitude.
+USE primary_db;
+
+ALTER TABLE branch_records
+    ADD COLUMN location POINT
+        AS (POINT(COALESCE(longitude, 0), COALESCE(latitude, 0))) STORED NOT NULL SRID 0,
+    ADD SPATIAL INDEX idx_branch_location (location);
@@ -29,6 +29,11 @@ INSERT INTO doctor_branch_assignment (doctor_id, branch_id) VALUES
 (3, 2),
 (4, 1);
 
+INSERT INTO doctor_specialization (doctor_id, specialization_id)
+SELECT d.doctor_id, js.specialization_id
+FROM doctor_records d,
+     JSON_TABLE(d.specializations_list, '$[*]' COLUMNS (specialization_id INT PATH '$')) js;
+
 INSERT IGNORE INTO user_roles (role_name, description) VALUES
 ('PATIENT','Patient role for booking appointments and managing records'),
 ('DOCTOR','Doctor role for managing appointments and consultations'),
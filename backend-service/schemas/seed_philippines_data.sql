@@ -5,6 +5,7 @@ DELETE FROM recommendation_records;
 DELETE FROM consultation_records;
 DELETE FROM appointment_records;
 DELETE FROM queue_records;
+DELETE FROM queue_number_sequence;
 DELETE FROM doctor_branch_assignment;
 DELETE FROM doctor_records;
 DELETE FROM patient_records;
@@ -97,6 +98,11 @@ INSERT INTO doctor_branch_assignment (doctor_id, branch_id) VALUES
 (7, 2), (7, 3),
 (8, 1), (8, 5), (8, 6);
 
+INSERT INTO doctor_specialization (doctor_id, specialization_id)
+SELECT d.doctor_id, js.specialization_id
+FROM doctor_records d,
+     JSON_TABLE(d.specializations_list, '$[*]' COLUMNS (specialization_id INT PATH '$')) js;
+
 INSERT IGNORE INTO user_roles (role_name, description) VALUES
 ('PATIENT','Patient role for booking appointments and managing records'),
 ('DOCTOR','Doctor role for managing appointments and consultations'),
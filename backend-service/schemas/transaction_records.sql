@@ -10,7 +10,12 @@ CREATE TABLE IF NOT EXISTS appointment_records (
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (patient_id) REFERENCES patient_records(patient_id),
     FOREIGN KEY (doctor_id) REFERENCES doctor_records(doctor_id),
-    FOREIGN KEY (branch_id) REFERENCES branch_records(branch_id)
+    FOREIGN KEY (branch_id) REFERENCES branch_records(branch_id),
+    INDEX idx_appointment_doctor_datetime (doctor_id, appointment_datetime),
+    INDEX idx_appointment_patient_datetime (patient_id, appointment_datetime),
+    INDEX idx_appointment_branch_datetime (branch_id, appointment_datetime),
+    INDEX idx_appointment_status_datetime (status, appointment_datetime),
+    INDEX idx_appointment_datetime (appointment_datetime)
 );
 
 CREATE TABLE IF NOT EXISTS queue_records (
@@ -21,6 +26,18 @@ CREATE TABLE IF NOT EXISTS queue_records (
     status ENUM('waiting', 'called', 'served', 'no_show') DEFAULT 'waiting',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (patient_id) REFERENCES patient_records(patient_id),
+    FOREIGN KEY (branch_id) REFERENCES branch_records(branch_id),
+    INDEX idx_queue_branch_created (branch_id, created_at),
+    INDEX idx_queue_branch_status_created (branch_id, status, created_at),
+    INDEX idx_queue_patient_created (patient_id, created_at),
+    INDEX idx_queue_created (created_at)
+);
+
+CREATE TABLE IF NOT EXISTS queue_number_sequence (
+    branch_id INT NOT NULL,
+    queue_date DATE NOT NULL,
+    last_number INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (branch_id, queue_date),
     FOREIGN KEY (branch_id) REFERENCES branch_records(branch_id)
 );
 
@@ -33,7 +50,9 @@ CREATE TABLE IF NOT EXISTS consultation_records (
     treatment_plan TEXT,
     prescription TEXT,
     follow_up_date DATETIME,
-    FOREIGN KEY (appointment_id) REFERENCES appointment_records(appointment_id)
+    FOREIGN KEY (appointment_id) REFERENCES appointment_records(appointment_id),
+    INDEX idx_consultation_appointment_start (appointment_id, start_time),
+    INDEX idx_consultation_start (start_time)
 );
 
 CREATE TABLE IF NOT EXISTS recommendation_records (
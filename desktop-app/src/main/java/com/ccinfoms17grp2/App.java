@@ -4,6 +4,7 @@ import com.ccinfoms17grp2.services.ServiceRegistry;
 import com.ccinfoms17grp2.ui.SceneNavigator;
 import com.ccinfoms17grp2.ui.SessionContext;
 import com.ccinfoms17grp2.ui.UiView;
+import com.ccinfoms17grp2.utils.DatabaseConnection;
 import javafx.application.Application;
 import javafx.geometry.Rectangle2D;
 import javafx.stage.Screen;
@@ -34,8 +35,12 @@ public class App extends Application {
     @Override
     public void stop() {
         navigator = null;
+        if (services != null) {
+            services.shutdown();
+        }
         services = null;
         session = null;
+        DatabaseConnection.shutdown();
     }
 
     public static void main(String[] args) {
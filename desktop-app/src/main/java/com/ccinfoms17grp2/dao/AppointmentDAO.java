@@ -3,10 +3,14 @@ package com.ccinfoms17grp2.dao;
 import com.ccinfoms17grp2.models.Appointment;
 import com.ccinfoms17grp2.models.AppointmentStatus;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
-public interface AppointmentDAO extends CrudRepository<Appointment, Integer> {
+public interface AppointmentDAO extends CrudRepository<Appointment, Integer>, PagingRepository<Appointment>,
+        StreamingRepository<Appointment> {
 
     List<Appointment> findByPatientId(int patientId) throws DaoException;
 
@@ -18,7 +22,23 @@ public interface AppointmentDAO extends CrudRepository<Appointment, Integer> {
 
     List<Appointment> findByDoctorAndDateRange(int doctorId, LocalDateTime start, LocalDateTime end) throws DaoException;
 
+    /**
+     * The doctors among {@code doctorIds} with at least one appointment between {@code start} and
+     * {@code end} inclusive; the set form of {@link #findByDoctorAndDateRange}. The server cancels the query
+     * once {@code timeout}, rounded up to whole seconds, has passed, and the call then fails.
+     */
+    Set<Integer> findDoctorIdsWithAppointmentsBetween(Collection<Integer> doctorIds, LocalDateTime start,
+                                                      LocalDateTime end, Duration timeout) throws DaoException;
+
     boolean updateStatus(int appointmentId, AppointmentStatus status) throws DaoException;
+
+    /**
+     * Conditional single-statement status change: succeeds only while the row is still in
+     * {@code expectedStatus}, so concurrent desks cannot overwrite each other's transitions.
+     *
+     * @return true if this call made the transition
+     */
+    boolean transitionStatus(int appointmentId, AppointmentStatus expectedStatus, AppointmentStatus newStatus) throws DaoException;
     
     List<Appointment> findTodaysAppointmentsByDoctor(int doctorId) throws DaoException;
 }
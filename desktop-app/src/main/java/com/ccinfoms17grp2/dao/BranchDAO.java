@@ -2,7 +2,17 @@ package com.ccinfoms17grp2.dao;
 
 import com.ccinfoms17grp2.models.Branch;
 
+import java.util.List;
+
 public interface BranchDAO extends CrudRepository<Branch, Integer> {
 
     boolean existsByName(String name) throws DaoException;
+
+    /**
+     * Branches within {@code radiusKm} great-circle kilometres of the given point, nearest first.
+     * Branches without coordinates are never returned.
+     *
+     * @param limit maximum number of branches to return
+     */
+    List<Branch> findWithinRadius(double latitude, double longitude, double radiusKm, int limit) throws DaoException;
 }
@@ -4,7 +4,8 @@ import com.ccinfoms17grp2.models.Consultation;
 
 import java.util.List;
 
-public interface ConsultationDAO extends CrudRepository<Consultation, Integer> {
+public interface ConsultationDAO extends CrudRepository<Consultation, Integer>, PagingRepository<Consultation>,
+        StreamingRepository<Consultation> {
 
     List<Consultation> findByAppointmentId(int appointmentId) throws DaoException;
 
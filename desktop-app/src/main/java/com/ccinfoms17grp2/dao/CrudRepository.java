@@ -1,5 +1,7 @@
 package com.ccinfoms17grp2.dao;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +19,42 @@ public interface CrudRepository<T, ID> {
     boolean update(T entity) throws DaoException;
 
     boolean delete(ID id) throws DaoException;
+
+    /**
+     * Inserts every entity and assigns generated IDs in list order. Implementations may batch the
+     * writes into a single transaction; this default simply calls {@link #create} per entity.
+     */
+    default List<T> createAll(List<T> entities) throws DaoException {
+        List<T> created = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            created.add(create(entity));
+        }
+        return created;
+    }
+
+    /**
+     * Updates every entity and returns the number of rows changed.
+     */
+    default int updateAll(List<T> entities) throws DaoException {
+        int updated = 0;
+        for (T entity : entities) {
+            if (update(entity)) {
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Deletes the rows with the given IDs and returns the number of rows removed.
+     */
+    default int deleteAll(Collection<ID> ids) throws DaoException {
+        int deleted = 0;
+        for (ID id : ids) {
+            if (delete(id)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
 }
@@ -5,6 +5,7 @@ import com.ccinfoms17grp2.models.Doctor;
 import com.ccinfoms17grp2.models.DoctorAvailabilityStatus;
 
 import java.util.List;
+import java.util.Map;
 
 public interface DoctorDAO extends CrudRepository<Doctor, Integer> {
 
@@ -19,4 +20,9 @@ public interface DoctorDAO extends CrudRepository<Doctor, Integer> {
     List<Branch> findBranchesForDoctor(int doctorId) throws DaoException;
 
     void updateBranchAssignments(int doctorId, List<Integer> branchIds) throws DaoException;
+
+    /**
+     * Every doctor-to-branch assignment in one query, keyed by doctor ID. Doctors without assignments are absent.
+     */
+    Map<Integer, List<Integer>> findAllBranchAssignments() throws DaoException;
 }
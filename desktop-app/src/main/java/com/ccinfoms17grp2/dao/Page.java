@@ -0,0 +1,33 @@
+package com.ccinfoms17grp2.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated result.
+ */
+public final class Page<T> {
+
+    private final List<T> items;
+    private final PageKey nextKey;
+
+    public Page(List<T> items, PageKey nextKey) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextKey = nextKey;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return cursor for the following page, or {@code null} when this is the last page
+     */
+    public PageKey getNextKey() {
+        return nextKey;
+    }
+
+    public boolean hasMore() {
+        return nextKey != null;
+    }
+}
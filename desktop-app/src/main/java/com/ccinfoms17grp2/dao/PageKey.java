@@ -0,0 +1,33 @@
+package com.ccinfoms17grp2.dao;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Opaque keyset cursor: the sort-column values and primary key of the last row on a page. Pass it back to
+ * {@link PagingRepository#findPage} to continue after that row.
+ */
+public final class PageKey {
+
+    private final List<Object> sortValues;
+    private final int id;
+
+    public PageKey(int id, Object... sortValues) {
+        this.id = id;
+        this.sortValues = Collections.unmodifiableList(Arrays.asList(sortValues.clone()));
+    }
+
+    public List<Object> getSortValues() {
+        return sortValues;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "PageKey{sortValues=" + sortValues + ", id=" + id + '}';
+    }
+}
@@ -0,0 +1,17 @@
+package com.ccinfoms17grp2.dao;
+
+/**
+ * Keyset (cursor) pagination over a DAO's natural ordering, with the primary key as tiebreaker. Unlike
+ * OFFSET paging, each page is an index range scan that starts right after the previous page's last row,
+ * so cost stays flat no matter how deep the caller scrolls.
+ */
+public interface PagingRepository<T> {
+
+    /**
+     * @param afterKey cursor from {@link Page#getNextKey()}, or {@code null} for the first page
+     * @param limit    maximum number of rows to return
+     * @param sort     direction of the natural ordering
+     * @throws DaoException if a database error occurs
+     */
+    Page<T> findPage(PageKey afterKey, int limit, SortDirection sort) throws DaoException;
+}
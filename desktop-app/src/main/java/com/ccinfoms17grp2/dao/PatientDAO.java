@@ -4,7 +4,7 @@ import com.ccinfoms17grp2.models.Patient;
 
 import java.util.List;
 
-public interface PatientDAO extends CrudRepository<Patient, Integer> {
+public interface PatientDAO extends CrudRepository<Patient, Integer>, PagingRepository<Patient> {
 
     List<Patient> searchByName(String keyword) throws DaoException;
 }
@@ -1,9 +1,13 @@
 package com.ccinfoms17grp2.dao;
 
 import com.ccinfoms17grp2.models.Queue;
+import com.ccinfoms17grp2.models.QueueStatus;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
-public interface QueueDAO extends CrudRepository<Queue, Integer> {
+public interface QueueDAO extends CrudRepository<Queue, Integer>, PagingRepository<Queue>,
+        StreamingRepository<Queue> {
     
     /**
      * Finds all queue entries for a specific branch.
@@ -34,13 +38,37 @@ public interface QueueDAO extends CrudRepository<Queue, Integer> {
     List<Queue> findByBranchIdAndStatus(int branchId, String status) throws DaoException;
     
     /**
-     * Gets the next available queue number for a branch.
+     * Gets the next queue number the branch's counter for today would hand out, without reserving it.
      *
      * @param branchId the branch ID
      * @return the next queue number
      * @throws DaoException if a database error occurs
      */
     int getNextQueueNumber(int branchId) throws DaoException;
+
+    /**
+     * Atomically reserves {@code count} consecutive queue numbers from the branch's counter for the database
+     * server's current date, the same clock that stamps {@code queue_records.created_at}. Concurrent callers
+     * always receive disjoint ranges.
+     *
+     * @param branchId the branch ID
+     * @param count how many numbers to reserve, at least 1
+     * @return the last number of the reserved range; the range starts at {@code result - count + 1}
+     * @throws DaoException if a database error occurs
+     */
+    int reserveQueueNumbers(int branchId, int count) throws DaoException;
+
+    /**
+     * Moves a queue entry to {@code newStatus} only if it is still in {@code expectedStatus}, as a single
+     * conditional UPDATE.
+     *
+     * @param queueId the queue ID
+     * @param expectedStatus the status the caller last saw
+     * @param newStatus the status to move to
+     * @return true if this call made the transition, false if the entry is missing or has already moved on
+     * @throws DaoException if a database error occurs
+     */
+    boolean transitionStatus(int queueId, QueueStatus expectedStatus, QueueStatus newStatus) throws DaoException;
     
     /**
      * Finds today's queue entries for a specific branch.
@@ -58,4 +86,14 @@ public interface QueueDAO extends CrudRepository<Queue, Integer> {
      * @throws DaoException if a database error occurs
      */
     List<Queue> findTodaysQueue() throws DaoException;
+
+    /**
+     * Counts today's queue entries in the given status for each of the given branches.
+     *
+     * @param branchIds the branch IDs
+     * @param status the queue status to count
+     * @return count by branch ID; branches with no matching entries are absent
+     * @throws DaoException if a database error occurs
+     */
+    Map<Integer, Integer> countTodaysByBranchAndStatus(Collection<Integer> branchIds, QueueStatus status) throws DaoException;
 }
@@ -0,0 +1,10 @@
+package com.ccinfoms17grp2.dao;
+
+/**
+ * Receives rows one at a time from {@link StreamingRepository#forEach}.
+ */
+@FunctionalInterface
+public interface RowConsumer<T> {
+
+    void accept(T row);
+}
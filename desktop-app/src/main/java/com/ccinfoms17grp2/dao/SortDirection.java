@@ -0,0 +1,9 @@
+package com.ccinfoms17grp2.dao;
+
+/**
+ * Direction applied to a DAO's natural ordering when paging.
+ */
+public enum SortDirection {
+    ASCENDING,
+    DESCENDING
+}
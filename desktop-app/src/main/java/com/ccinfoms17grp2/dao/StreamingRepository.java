@@ -0,0 +1,20 @@
+package com.ccinfoms17grp2.dao;
+
+/**
+ * Full-table scans for reports and exports that must not materialise every row in memory.
+ */
+public interface StreamingRepository<T> {
+
+    /**
+     * Streams every row, in primary key order, to {@code consumer}. The connection and statement are
+     * closed before this method returns, whether the scan completes or the consumer throws.
+     * <p>
+     * The scan runs on a connection of its own, outside any transaction open on the calling thread, so the
+     * consumer may make other DAO calls, including inside a transaction. Inside one, the scan holds a second
+     * pooled connection and does not see the transaction's uncommitted changes.
+     *
+     * @return number of rows delivered
+     * @throws DaoException if a database error occurs
+     */
+    long forEach(RowConsumer<? super T> consumer) throws DaoException;
+}
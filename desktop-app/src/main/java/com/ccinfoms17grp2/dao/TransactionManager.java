@@ -0,0 +1,25 @@
+package com.ccinfoms17grp2.dao;
+
+import java.util.function.Supplier;
+
+/**
+ * Opens a unit of work in which every DAO call made on the current thread shares one connection and
+ * one commit. Calls made inside an already open unit of work join it.
+ */
+public interface TransactionManager {
+
+    /**
+     * Runs {@code work} in a transaction and returns its result. Any exception thrown by {@code work}
+     * rolls the transaction back and is rethrown unchanged.
+     *
+     * @throws DaoException if the transaction cannot be started, committed or rolled back
+     */
+    <T> T inTransaction(Supplier<T> work) throws DaoException;
+
+    default void runInTransaction(Runnable work) throws DaoException {
+        inTransaction(() -> {
+            work.run();
+            return null;
+        });
+    }
+}
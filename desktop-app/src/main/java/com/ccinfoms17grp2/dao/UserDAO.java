@@ -8,7 +8,7 @@ import java.util.Optional;
 /**
  * Data Access Object interface for User entities
  */
-public interface UserDAO extends CrudRepository<User, Integer> {
+public interface UserDAO extends CrudRepository<User, Integer>, PagingRepository<User> {
 
     /**
      * Find user by email address
@@ -52,6 +52,14 @@ public interface UserDAO extends CrudRepository<User, Integer> {
      */
     boolean updateLastLogin(int userId, java.time.LocalDateTime loginTime) throws DaoException;
 
+    /**
+     * Update last login timestamps for many users in one batch
+     * @param loginTimes login timestamp by user ID
+     * @return number of users updated
+     * @throws DaoException if a database error occurs
+     */
+    int updateLastLogins(java.util.Map<Integer, java.time.LocalDateTime> loginTimes) throws DaoException;
+
     /**
      * Activate or deactivate user account
      * @param userId the user ID
@@ -1,17 +1,250 @@
 package com.ccinfoms17grp2.dao.impl;
 
 import com.ccinfoms17grp2.dao.DaoException;
+import com.ccinfoms17grp2.dao.Page;
+import com.ccinfoms17grp2.dao.PageKey;
+import com.ccinfoms17grp2.dao.RowConsumer;
+import com.ccinfoms17grp2.dao.SortDirection;
 import com.ccinfoms17grp2.utils.DatabaseConnection;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 
 abstract class AbstractJdbcDao {
 
+    /**
+     * Rows per multi-row INSERT / IN-list DELETE, well under MySQL's 65,535 placeholder limit.
+     */
+    protected static final int BATCH_CHUNK_SIZE = 500;
+
+    private final DataSource dataSource;
+
+    protected AbstractJdbcDao() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    protected AbstractJdbcDao(DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+    }
+
+    /**
+     * Returns the connection of the transaction open on this thread, if any, otherwise a pooled one.
+     * Either way the caller closes it as usual.
+     */
     protected Connection getConnection() throws SQLException {
-        return DatabaseConnection.getConnection();
+        Connection bound = JdbcTransactionManager.boundConnection(dataSource);
+        return bound != null ? bound : dataSource.getConnection();
+    }
+
+    /**
+     * Runs {@code work} in one transaction, joining the one already open on this thread if there is one.
+     */
+    protected <T> T inTransaction(ConnectionCallback<T> work) throws SQLException {
+        return JdbcTransactionManager.execute(dataSource, work);
+    }
+
+    /**
+     * Prepares constant SQL through the per-connection {@link StatementCache}. Close the returned
+     * statement as usual; the cache keeps the underlying statement for the next call on the same
+     * pooled connection.
+     */
+    protected PreparedStatement prepareCached(Connection connection, String sql) throws SQLException {
+        return StatementCache.prepare(connection, sql);
+    }
+
+    /**
+     * Inserts {@code entities} with multi-row {@code INSERT ... VALUES (..), (..)} statements inside one
+     * transaction and hands each generated key to {@code keyAssigner} in list order once the statements
+     * have succeeded.
+     *
+     * @param insertPrefix   statement up to and including {@code VALUES }
+     * @param rowPlaceholder placeholder group for one row, e.g. {@code (?, ?, ?)}
+     */
+    protected <T> void batchInsert(String insertPrefix, String rowPlaceholder, List<T> entities,
+                                  ParameterBinder<T> binder, KeyAssigner<T> keyAssigner) throws SQLException {
+        if (entities.isEmpty()) {
+            return;
+        }
+        final int columnsPerRow = countPlaceholders(rowPlaceholder);
+        final int[] generatedKeys = new int[entities.size()];
+        inTransaction(connection -> {
+            for (int from = 0; from < entities.size(); from += BATCH_CHUNK_SIZE) {
+                List<T> chunk = entities.subList(from, Math.min(from + BATCH_CHUNK_SIZE, entities.size()));
+                String sql = insertPrefix + String.join(", ", Collections.nCopies(chunk.size(), rowPlaceholder));
+                try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    int offset = 0;
+                    for (T entity : chunk) {
+                        binder.bind(ps, offset, entity);
+                        offset += columnsPerRow;
+                    }
+                    ps.executeUpdate();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            if (!keys.next()) {
+                                throw new SQLException("Expected " + chunk.size() + " generated keys but got " + i);
+                            }
+                            generatedKeys[from + i] = keys.getInt(1);
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+        for (int i = 0; i < generatedKeys.length; i++) {
+            keyAssigner.assign(entities.get(i), generatedKeys[i]);
+        }
+    }
+
+    /**
+     * Runs {@code sql} once per entity as a JDBC batch inside one transaction. The batch goes out in one round
+     * trip only with {@code rewriteBatchedStatements=true} in {@code db.url}; otherwise Connector/J sends each
+     * row separately.
+     *
+     * @return number of rows changed
+     */
+    protected <T> int batchUpdate(String sql, List<T> entities, ParameterBinder<T> binder) throws SQLException {
+        if (entities.isEmpty()) {
+            return 0;
+        }
+        return inTransaction(connection -> {
+            int updated = 0;
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (int from = 0; from < entities.size(); from += BATCH_CHUNK_SIZE) {
+                    int to = Math.min(from + BATCH_CHUNK_SIZE, entities.size());
+                    for (T entity : entities.subList(from, to)) {
+                        binder.bind(ps, 0, entity);
+                        ps.addBatch();
+                    }
+                    for (int count : ps.executeBatch()) {
+                        updated += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+                    }
+                }
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Deletes rows with {@code deletePrefix + "(?, ?, ...)"} IN-list statements inside one transaction.
+     *
+     * @param deletePrefix statement up to and including {@code IN }
+     * @return number of rows removed
+     */
+    protected int batchDelete(String deletePrefix, Collection<Integer> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Integer> idList = new ArrayList<>(ids);
+        return inTransaction(connection -> {
+            int deleted = 0;
+            for (int from = 0; from < idList.size(); from += BATCH_CHUNK_SIZE) {
+                List<Integer> chunk = idList.subList(from, Math.min(from + BATCH_CHUNK_SIZE, idList.size()));
+                String sql = deletePrefix + "(" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        ps.setInt(i + 1, chunk.get(i));
+                    }
+                    deleted += ps.executeUpdate();
+                }
+            }
+            return deleted;
+        });
+    }
+
+    /**
+     * Reads one keyset page: the rows that follow {@code afterKey} in ({@code sortColumns}, {@code idColumn})
+     * order. One extra row is fetched to tell whether another page follows.
+     *
+     * @param baseSelect {@code SELECT ... FROM table } without WHERE or ORDER BY
+     */
+    protected <T> Page<T> fetchPage(String baseSelect, List<String> sortColumns, String idColumn, PageKey afterKey,
+                                    int limit, SortDirection sort, RowMapper<T> mapper) throws SQLException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive");
+        }
+        if (afterKey != null && afterKey.getSortValues().size() != sortColumns.size()) {
+            throw new IllegalArgumentException("Page key does not match this query: " + afterKey);
+        }
+        List<String> keyColumns = new ArrayList<>(sortColumns);
+        keyColumns.add(idColumn);
+        String direction = sort == SortDirection.ASCENDING ? " ASC" : " DESC";
+
+        StringBuilder sql = new StringBuilder(baseSelect);
+        if (afterKey != null) {
+            String placeholders = String.join(", ", Collections.nCopies(keyColumns.size(), "?"));
+            sql.append("WHERE (").append(String.join(", ", keyColumns)).append(')')
+               .append(sort == SortDirection.ASCENDING ? " > (" : " < (").append(placeholders).append(") ");
+        }
+        sql.append("ORDER BY ").append(String.join(direction + ", ", keyColumns)).append(direction).append(" LIMIT ?");
+
+        try (Connection connection = getConnection();
+             PreparedStatement ps = prepareCached(connection, sql.toString())) {
+            int index = 1;
+            if (afterKey != null) {
+                for (Object value : afterKey.getSortValues()) {
+                    ps.setObject(index++, value);
+                }
+                ps.setInt(index++, afterKey.getId());
+            }
+            ps.setInt(index, limit + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<T> items = new ArrayList<>(Math.min(limit, 256));
+                PageKey lastKey = null;
+                boolean more = false;
+                while (rs.next()) {
+                    if (items.size() == limit) {
+                        more = true;
+                        break;
+                    }
+                    items.add(mapper.map(rs));
+                    if (items.size() == limit) {
+                        Object[] values = new Object[sortColumns.size()];
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = rs.getObject(sortColumns.get(i));
+                        }
+                        lastKey = new PageKey(rs.getInt(idColumn), values);
+                    }
+                }
+                return new Page<>(items, more ? lastKey : null);
+            }
+        }
+    }
+
+    /**
+     * Runs {@code sql} with MySQL row streaming (forward-only, read-only, fetch size
+     * {@link Integer#MIN_VALUE}) so rows are mapped and handed to {@code consumer} as they arrive instead
+     * of being buffered by the driver. try-with-resources closes the result set, statement and connection
+     * on every exit path; on an early exit the driver drains the remaining rows before the connection
+     * goes back to the pool.
+     * <p>
+     * The scan always borrows its own connection, even inside a transaction bound to this thread: MySQL
+     * refuses further statements on a connection while a streaming result set is open, and the consumer's
+     * DAO calls would run on the transaction's connection.
+     *
+     * @return number of rows delivered
+     */
+    protected <T> long streamRows(String sql, RowMapper<T> mapper, RowConsumer<? super T> consumer) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = ps.executeQuery()) {
+                long delivered = 0;
+                while (rs.next()) {
+                    consumer.accept(mapper.map(rs));
+                    delivered++;
+                }
+                return delivered;
+            }
+        }
     }
 
     protected DaoException translateException(String message, SQLException ex) {
@@ -35,4 +268,67 @@ abstract class AbstractJdbcDao {
             }
         }
     }
+
+    /**
+     * {@code (?, ?, ...)} for an IN list of {@code count} values, padded to the next power of two so that lists
+     * of similar length share one statement text and one {@link StatementCache} entry. Bind it with
+     * {@link #bindPaddedInList}.
+     */
+    protected static String paddedInList(int count) {
+        return "(" + String.join(", ", Collections.nCopies(paddedSize(count), "?")) + ")";
+    }
+
+    /**
+     * Binds {@code values} from parameter {@code firstIndex}, repeating the last value to fill the padding
+     * added by {@link #paddedInList}.
+     *
+     * @return index of the next parameter after the list
+     */
+    protected static int bindPaddedInList(PreparedStatement ps, int firstIndex, List<Integer> values) throws SQLException {
+        int size = paddedSize(values.size());
+        for (int i = 0; i < size; i++) {
+            ps.setInt(firstIndex + i, values.get(Math.min(i, values.size() - 1)));
+        }
+        return firstIndex + size;
+    }
+
+    private static int paddedSize(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("IN list must not be empty");
+        }
+        return count == 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+    }
+
+    private static int countPlaceholders(String sqlFragment) {
+        int count = 0;
+        for (int i = 0; i < sqlFragment.length(); i++) {
+            if (sqlFragment.charAt(i) == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    protected interface ConnectionCallback<T> {
+        T doInConnection(Connection connection) throws SQLException;
+    }
+
+    @FunctionalInterface
+    protected interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Binds one entity's columns starting at parameter index {@code offset + 1}.
+     */
+    @FunctionalInterface
+    protected interface ParameterBinder<T> {
+        void bind(PreparedStatement ps, int offset, T entity) throws SQLException;
+    }
+
+    @FunctionalInterface
+    protected interface KeyAssigner<T> {
+        void assign(T entity, int generatedKey);
+    }
 }
@@ -2,6 +2,10 @@ package com.ccinfoms17grp2.dao.impl;
 
 import com.ccinfoms17grp2.dao.AppointmentDAO;
 import com.ccinfoms17grp2.dao.DaoException;
+import com.ccinfoms17grp2.dao.Page;
+import com.ccinfoms17grp2.dao.PageKey;
+import com.ccinfoms17grp2.dao.RowConsumer;
+import com.ccinfoms17grp2.dao.SortDirection;
 import com.ccinfoms17grp2.models.Appointment;
 import com.ccinfoms17grp2.models.AppointmentStatus;
 import com.ccinfoms17grp2.utils.DateTimeUtil;
@@ -12,22 +16,30 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public class AppointmentJdbcDao extends AbstractJdbcDao implements AppointmentDAO {
 
     private static final String BASE_SELECT = 
         "SELECT appointment_id, patient_id, doctor_id, branch_id, appointment_datetime, status, created_at " +
         "FROM appointment_records ";
+    private static final String INSERT_PREFIX =
+        "INSERT INTO appointment_records (patient_id, doctor_id, branch_id, appointment_datetime, status) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?)";
 
     @Override
     public List<Appointment> findAll() throws DaoException {
         final String sql = BASE_SELECT + "ORDER BY appointment_datetime DESC";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql);
+             PreparedStatement ps = prepareCached(connection, sql);
              ResultSet rs = ps.executeQuery()) {
             List<Appointment> appointments = new ArrayList<>();
             while (rs.next()) {
@@ -39,11 +51,29 @@ public class AppointmentJdbcDao extends AbstractJdbcDao implements AppointmentDA
         }
     }
 
+    @Override
+    public Page<Appointment> findPage(PageKey afterKey, int limit, SortDirection sort) throws DaoException {
+        try {
+            return fetchPage(BASE_SELECT, List.of("appointment_datetime"), "appointment_id", afterKey, limit, sort, this::mapRow);
+        } catch (SQLException ex) {
+            throw translateException("Failed to fetch a page of appointments", ex);
+        }
+    }
+
+    @Override
+    public long forEach(RowConsumer<? super Appointment> consumer) throws DaoException {
+        try {
+            return streamRows(BASE_SELECT + "ORDER BY appointment_id", this::mapRow, consumer);
+        } catch (SQLException ex) {
+            throw translateException("Failed to stream appointments", ex);
+        }
+    }
+
     @Override
     public Optional<Appointment> findById(Integer id) throws DaoException {
         final String sql = BASE_SELECT + "WHERE appointment_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -85,7 +115,7 @@ public class AppointmentJdbcDao extends AbstractJdbcDao implements AppointmentDA
         final String sql = "UPDATE appointment_records SET patient_id = ?, doctor_id = ?, branch_id = ?, " +
                           "appointment_datetime = ?, status = ? WHERE appointment_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, appointment.getPatientId());
             ps.setInt(2, appointment.getDoctorId());
             ps.setInt(3, appointment.getBranchId());
@@ -102,7 +132,7 @@ public class AppointmentJdbcDao extends AbstractJdbcDao implements AppointmentDA
     public boolean delete(Integer id) throws DaoException {
         final String sql = "DELETE FROM appointment_records WHERE appointment_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, id);
             return ps.executeUpdate() == 1;
         } catch (SQLException ex) {
@@ -114,7 +144,7 @@ public class AppointmentJdbcDao extends AbstractJdbcDao implements AppointmentDA
     public List<Appointment> findByPatientId(int patientId) throws DaoException {
         final String sql = BASE_SELECT + "WHERE patient_id = ? ORDER BY appointment_datetime DESC";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, patientId);
             try (ResultSet rs = ps.executeQuery()) {
                 List<Appointment> appointments = new ArrayList<>();
@@ -132,7 +162,7 @@ public class AppointmentJdbcDao extends AbstractJdbcDao implements AppointmentDA
     public List<Appointment> findByDoctorId(int doctorId) throws DaoException {
         final String sql = BASE_SELECT + "WHERE doctor_id = ? ORDER BY appointment_datetime DESC";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, doctorId);
             try (ResultSet rs = ps.executeQuery()) {
                 List<Appointment> appointments = new ArrayList<>();
@@ -150,7 +180,7 @@ public class AppointmentJdbcDao extends AbstractJdbcDao implements AppointmentDA
     public List<Appointment> findByBranchId(int branchId) throws DaoException {
         final String sql = BASE_SELECT + "WHERE branch_id = ? ORDER BY appointment_datetime DESC";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, branchId);
             try (ResultSet rs = ps.executeQuery()) {
                 List<Appointment> appointments = new ArrayList<>();
@@ -168,7 +198,7 @@ public class AppointmentJdbcDao extends AbstractJdbcDao implements AppointmentDA
     public List<Appointment> findByStatus(AppointmentStatus status) throws DaoException {
         final String sql = BASE_SELECT + "WHERE status = ? ORDER BY appointment_datetime DESC";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setString(1, status.toDatabaseValue());
             try (ResultSet rs = ps.executeQuery()) {
                 List<Appointment> appointments = new ArrayList<>();
@@ -187,7 +217,7 @@ public class AppointmentJdbcDao extends AbstractJdbcDao implements AppointmentDA
         final String sql = BASE_SELECT + 
             "WHERE doctor_id = ? AND appointment_datetime BETWEEN ? AND ? ORDER BY appointment_datetime";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, doctorId);
             ps.setTimestamp(2, Timestamp.valueOf(start));
             ps.setTimestamp(3, Timestamp.valueOf(end));
@@ -203,11 +233,56 @@ public class AppointmentJdbcDao extends AbstractJdbcDao implements AppointmentDA
         }
     }
 
+    @Override
+    public Set<Integer> findDoctorIdsWithAppointmentsBetween(Collection<Integer> doctorIds, LocalDateTime start,
+                                                             LocalDateTime end, Duration timeout) throws DaoException {
+        Set<Integer> busy = new HashSet<>();
+        if (doctorIds.isEmpty()) {
+            return busy;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(doctorIds));
+        try (Connection connection = getConnection()) {
+            for (int from = 0; from < distinctIds.size(); from += BATCH_CHUNK_SIZE) {
+                List<Integer> chunk = distinctIds.subList(from, Math.min(from + BATCH_CHUNK_SIZE, distinctIds.size()));
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new DaoException("Timed out finding doctors with appointments in date range");
+                }
+                final String sql = "SELECT DISTINCT doctor_id FROM appointment_records " +
+                    "WHERE doctor_id IN " + paddedInList(chunk.size()) + " AND appointment_datetime BETWEEN ? AND ?";
+                // Prepared outside the statement cache so the timeout does not stay on a shared statement.
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    ps.setQueryTimeout(toTimeoutSeconds(remaining));
+                    int next = bindPaddedInList(ps, 1, chunk);
+                    ps.setTimestamp(next, Timestamp.valueOf(start));
+                    ps.setTimestamp(next + 1, Timestamp.valueOf(end));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            busy.add(rs.getInt("doctor_id"));
+                        }
+                    }
+                }
+            }
+            return busy;
+        } catch (SQLException ex) {
+            throw translateException("Failed to find doctors with appointments in date range", ex);
+        }
+    }
+
+    /**
+     * Whole seconds for {@link Statement#setQueryTimeout}, rounded up and at least one, since zero means no limit.
+     */
+    private static int toTimeoutSeconds(long nanos) {
+        long seconds = (nanos + 999_999_999L) / 1_000_000_000L;
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1L, seconds));
+    }
+
     @Override
     public boolean updateStatus(int appointmentId, AppointmentStatus status) throws DaoException {
         final String sql = "UPDATE appointment_records SET status = ? WHERE appointment_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setString(1, status.toDatabaseValue());
             ps.setInt(2, appointmentId);
             return ps.executeUpdate() == 1;
@@ -215,13 +290,28 @@ public class AppointmentJdbcDao extends AbstractJdbcDao implements AppointmentDA
             throw translateException("Failed to update appointment status for id=" + appointmentId, ex);
         }
     }
+
+    @Override
+    public boolean transitionStatus(int appointmentId, AppointmentStatus expectedStatus, AppointmentStatus newStatus) throws DaoException {
+        final String sql = "UPDATE appointment_records SET status = ? WHERE appointment_id = ? AND status = ?";
+        try (Connection connection = getConnection();
+             PreparedStatement ps = prepareCached(connection, sql)) {
+            ps.setString(1, newStatus.toDatabaseValue());
+            ps.setInt(2, appointmentId);
+            ps.setString(3, expectedStatus.toDatabaseValue());
+            return ps.executeUpdate() == 1;
+        } catch (SQLException ex) {
+            throw translateException("Failed to transition appointment status for id=" + appointmentId, ex);
+        }
+    }
     
     @Override
     public List<Appointment> findTodaysAppointmentsByDoctor(int doctorId) throws DaoException {
         final String sql = BASE_SELECT + 
-            "WHERE doctor_id = ? AND DATE(appointment_datetime) = CURDATE() ORDER BY appointment_datetime";
+            "WHERE doctor_id = ? AND appointment_datetime >= CURDATE() AND appointment_datetime < CURDATE() + INTERVAL 1 DAY " +
+            "ORDER BY appointment_datetime";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, doctorId);
             try (ResultSet rs = ps.executeQuery()) {
                 List<Appointment> appointments = new ArrayList<>();
@@ -235,6 +325,47 @@ public class AppointmentJdbcDao extends AbstractJdbcDao implements AppointmentDA
         }
     }
 
+    @Override
+    public List<Appointment> createAll(List<Appointment> appointments) throws DaoException {
+        try {
+            batchInsert(INSERT_PREFIX, INSERT_ROW, appointments, this::bindColumns, Appointment::setAppointmentId);
+            return appointments;
+        } catch (SQLException ex) {
+            throw translateException("Failed to create " + appointments.size() + " appointments", ex);
+        }
+    }
+
+    @Override
+    public int updateAll(List<Appointment> appointments) throws DaoException {
+        final String sql = "UPDATE appointment_records SET patient_id = ?, doctor_id = ?, branch_id = ?, " +
+                          "appointment_datetime = ?, status = ? WHERE appointment_id = ?";
+        try {
+            return batchUpdate(sql, appointments, (ps, offset, appointment) -> {
+                bindColumns(ps, offset, appointment);
+                ps.setInt(offset + 6, appointment.getAppointmentId());
+            });
+        } catch (SQLException ex) {
+            throw translateException("Failed to update " + appointments.size() + " appointments", ex);
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<Integer> ids) throws DaoException {
+        try {
+            return batchDelete("DELETE FROM appointment_records WHERE appointment_id IN ", ids);
+        } catch (SQLException ex) {
+            throw translateException("Failed to delete " + ids.size() + " appointments", ex);
+        }
+    }
+
+    private void bindColumns(PreparedStatement ps, int offset, Appointment appointment) throws SQLException {
+        ps.setInt(offset + 1, appointment.getPatientId());
+        ps.setInt(offset + 2, appointment.getDoctorId());
+        ps.setInt(offset + 3, appointment.getBranchId());
+        ps.setTimestamp(offset + 4, Timestamp.valueOf(appointment.getAppointmentDateTime()));
+        ps.setString(offset + 5, appointment.getStatus().toDatabaseValue());
+    }
+
     private Appointment mapRow(ResultSet rs) throws SQLException {
         int appointmentId = rs.getInt("appointment_id");
         int patientId = rs.getInt("patient_id");
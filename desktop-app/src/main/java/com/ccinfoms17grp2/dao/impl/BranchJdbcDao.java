@@ -17,12 +17,15 @@ public class BranchJdbcDao extends AbstractJdbcDao implements BranchDAO {
 
     private static final String BASE_SELECT = "SELECT branch_id, branch_name, address, latitude, longitude, capacity, contact_number FROM branch_records ";
     private static final String ORDER_BY = " ORDER BY branch_name";
+    // Same radius as LocationUtil, so distances agree with the ones computed in the application.
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE_LATITUDE = Math.PI * EARTH_RADIUS_KM / 180.0;
 
     @Override
     public List<Branch> findAll() throws DaoException {
         final String sql = BASE_SELECT + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql);
+             PreparedStatement ps = prepareCached(connection, sql);
              ResultSet rs = ps.executeQuery()) {
             List<Branch> branches = new ArrayList<>();
             while (rs.next()) {
@@ -38,7 +41,7 @@ public class BranchJdbcDao extends AbstractJdbcDao implements BranchDAO {
     public Optional<Branch> findById(Integer id) throws DaoException {
         final String sql = BASE_SELECT + "WHERE branch_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -86,7 +89,7 @@ public class BranchJdbcDao extends AbstractJdbcDao implements BranchDAO {
     public boolean update(Branch branch) throws DaoException {
         final String sql = "UPDATE branch_records SET branch_name = ?, address = ?, latitude = ?, longitude = ?, capacity = ?, contact_number = ? WHERE branch_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setString(1, branch.getBranchName());
             ps.setString(2, branch.getAddress());
             if (branch.getLatitude() != null) {
@@ -112,7 +115,7 @@ public class BranchJdbcDao extends AbstractJdbcDao implements BranchDAO {
     public boolean delete(Integer id) throws DaoException {
         final String sql = "DELETE FROM branch_records WHERE branch_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, id);
             return ps.executeUpdate() == 1;
         } catch (SQLException ex) {
@@ -124,7 +127,7 @@ public class BranchJdbcDao extends AbstractJdbcDao implements BranchDAO {
     public boolean existsByName(String name) throws DaoException {
         final String sql = "SELECT 1 FROM branch_records WHERE branch_name = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setString(1, name);
             try (ResultSet rs = ps.executeQuery()) {
                 return rs.next();
@@ -134,6 +137,61 @@ public class BranchJdbcDao extends AbstractJdbcDao implements BranchDAO {
         }
     }
 
+    @Override
+    public List<Branch> findWithinRadius(double latitude, double longitude, double radiusKm, int limit) throws DaoException {
+        List<Branch> branches = new ArrayList<>();
+        if (radiusKm < 0 || limit <= 0) {
+            return branches;
+        }
+        // MBRContains on the SPATIAL index narrows the scan to a lat/long box around the circle;
+        // ST_Distance_Sphere then drops the box corners and orders by the exact distance.
+        final String sql = BASE_SELECT +
+            "WHERE MBRContains(ST_MakeEnvelope(POINT(?, ?), POINT(?, ?)), location) " +
+            "AND latitude IS NOT NULL AND longitude IS NOT NULL " +
+            "AND ST_Distance_Sphere(location, POINT(?, ?), ?) <= ? " +
+            "ORDER BY ST_Distance_Sphere(location, POINT(?, ?), ?), branch_id LIMIT ?";
+
+        double latDelta = radiusKm / KM_PER_DEGREE_LATITUDE;
+        double minLat = Math.max(-90.0, latitude - latDelta);
+        double maxLat = Math.min(90.0, latitude + latDelta);
+        double minLon = -180.0;
+        double maxLon = 180.0;
+        // Longitude degrees shrink towards the poles; near a pole or across the antimeridian keep the full range.
+        double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        if (maxLat < 90.0 && minLat > -90.0 && cosLat > 0) {
+            double lonDelta = latDelta / cosLat;
+            if (longitude - lonDelta >= -180.0 && longitude + lonDelta <= 180.0) {
+                minLon = longitude - lonDelta;
+                maxLon = longitude + lonDelta;
+            }
+        }
+
+        double earthRadiusMeters = EARTH_RADIUS_KM * 1000.0;
+        try (Connection connection = getConnection();
+             PreparedStatement ps = prepareCached(connection, sql)) {
+            ps.setDouble(1, minLon);
+            ps.setDouble(2, minLat);
+            ps.setDouble(3, maxLon);
+            ps.setDouble(4, maxLat);
+            ps.setDouble(5, longitude);
+            ps.setDouble(6, latitude);
+            ps.setDouble(7, earthRadiusMeters);
+            ps.setDouble(8, radiusKm * 1000.0);
+            ps.setDouble(9, longitude);
+            ps.setDouble(10, latitude);
+            ps.setDouble(11, earthRadiusMeters);
+            ps.setInt(12, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    branches.add(mapRow(rs));
+                }
+            }
+            return branches;
+        } catch (SQLException ex) {
+            throw translateException("Failed to find branches within " + radiusKm + " km", ex);
+        }
+    }
+
     private Branch mapRow(ResultSet rs) throws SQLException {
         int id = rs.getInt("branch_id");
         String name = rs.getString("branch_name");
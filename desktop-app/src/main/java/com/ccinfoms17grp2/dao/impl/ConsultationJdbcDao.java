@@ -2,6 +2,10 @@ package com.ccinfoms17grp2.dao.impl;
 
 import com.ccinfoms17grp2.dao.ConsultationDAO;
 import com.ccinfoms17grp2.dao.DaoException;
+import com.ccinfoms17grp2.dao.Page;
+import com.ccinfoms17grp2.dao.PageKey;
+import com.ccinfoms17grp2.dao.RowConsumer;
+import com.ccinfoms17grp2.dao.SortDirection;
 import com.ccinfoms17grp2.models.Consultation;
 import com.ccinfoms17grp2.utils.DateTimeUtil;
 
@@ -26,7 +30,7 @@ public class ConsultationJdbcDao extends AbstractJdbcDao implements Consultation
     public List<Consultation> findAll() throws DaoException {
         final String sql = BASE_SELECT + "ORDER BY start_time DESC";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql);
+             PreparedStatement ps = prepareCached(connection, sql);
              ResultSet rs = ps.executeQuery()) {
             List<Consultation> consultations = new ArrayList<>();
             while (rs.next()) {
@@ -38,11 +42,33 @@ public class ConsultationJdbcDao extends AbstractJdbcDao implements Consultation
         }
     }
 
+    /**
+     * Pages by consultation_id alone: start_time is nullable and NULLs cannot take part in a keyset
+     * comparison, while IDs follow the order consultations are recorded in.
+     */
+    @Override
+    public Page<Consultation> findPage(PageKey afterKey, int limit, SortDirection sort) throws DaoException {
+        try {
+            return fetchPage(BASE_SELECT, List.of(), "consultation_id", afterKey, limit, sort, this::mapRow);
+        } catch (SQLException ex) {
+            throw translateException("Failed to fetch a page of consultations", ex);
+        }
+    }
+
+    @Override
+    public long forEach(RowConsumer<? super Consultation> consumer) throws DaoException {
+        try {
+            return streamRows(BASE_SELECT + "ORDER BY consultation_id", this::mapRow, consumer);
+        } catch (SQLException ex) {
+            throw translateException("Failed to stream consultations", ex);
+        }
+    }
+
     @Override
     public Optional<Consultation> findById(Integer id) throws DaoException {
         final String sql = BASE_SELECT + "WHERE consultation_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -86,7 +112,7 @@ public class ConsultationJdbcDao extends AbstractJdbcDao implements Consultation
         final String sql = "UPDATE consultation_records SET appointment_id = ?, start_time = ?, end_time = ?, " +
                           "diagnosis = ?, treatment_plan = ?, prescription = ?, follow_up_date = ? WHERE consultation_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, consultation.getAppointmentId());
             ps.setTimestamp(2, consultation.getStartTime() != null ? Timestamp.valueOf(consultation.getStartTime()) : null);
             ps.setTimestamp(3, consultation.getEndTime() != null ? Timestamp.valueOf(consultation.getEndTime()) : null);
@@ -105,7 +131,7 @@ public class ConsultationJdbcDao extends AbstractJdbcDao implements Consultation
     public boolean delete(Integer id) throws DaoException {
         final String sql = "DELETE FROM consultation_records WHERE consultation_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, id);
             return ps.executeUpdate() == 1;
         } catch (SQLException ex) {
@@ -117,7 +143,7 @@ public class ConsultationJdbcDao extends AbstractJdbcDao implements Consultation
     public List<Consultation> findByAppointmentId(int appointmentId) throws DaoException {
         final String sql = BASE_SELECT + "WHERE appointment_id = ? ORDER BY start_time DESC";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, appointmentId);
             try (ResultSet rs = ps.executeQuery()) {
                 List<Consultation> consultations = new ArrayList<>();
@@ -137,7 +163,7 @@ public class ConsultationJdbcDao extends AbstractJdbcDao implements Consultation
             "INNER JOIN appointment_records a ON consultation_records.appointment_id = a.appointment_id " +
             "WHERE a.patient_id = ? ORDER BY start_time DESC";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, patientId);
             try (ResultSet rs = ps.executeQuery()) {
                 List<Consultation> consultations = new ArrayList<>();
@@ -157,7 +183,7 @@ public class ConsultationJdbcDao extends AbstractJdbcDao implements Consultation
             "INNER JOIN appointment_records a ON consultation_records.appointment_id = a.appointment_id " +
             "WHERE a.doctor_id = ? ORDER BY start_time DESC";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, doctorId);
             try (ResultSet rs = ps.executeQuery()) {
                 List<Consultation> consultations = new ArrayList<>();
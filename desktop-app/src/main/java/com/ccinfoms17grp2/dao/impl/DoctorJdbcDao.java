@@ -16,19 +16,26 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class DoctorJdbcDao extends AbstractJdbcDao implements DoctorDAO {
 
     private static final String BASE_SELECT = "SELECT doctor_records.doctor_id, doctor_records.last_name, doctor_records.first_name, doctor_records.email, doctor_records.specializations_list, doctor_records.availability_status, doctor_records.availability_datetime_ranges, doctor_records.created_at FROM doctor_records ";
     private static final String ORDER_BY = " ORDER BY doctor_records.last_name ASC, doctor_records.first_name ASC";
+    private static final String INSERT_PREFIX = "INSERT INTO doctor_records (last_name, first_name, email, specializations_list, availability_status) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?)";
+    private static final String SPECIALIZATION_JOIN = "INNER JOIN doctor_specialization ds ON doctor_records.doctor_id = ds.doctor_id ";
 
     @Override
     public List<Doctor> findAll() throws DaoException {
         final String sql = BASE_SELECT + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql);
+             PreparedStatement ps = prepareCached(connection, sql);
              ResultSet rs = ps.executeQuery()) {
             List<Doctor> doctors = new ArrayList<>();
             while (rs.next()) {
@@ -44,7 +51,7 @@ public class DoctorJdbcDao extends AbstractJdbcDao implements DoctorDAO {
     public Optional<Doctor> findById(Integer id) throws DaoException {
         final String sql = BASE_SELECT + "WHERE doctor_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -60,20 +67,24 @@ public class DoctorJdbcDao extends AbstractJdbcDao implements DoctorDAO {
     @Override
     public Doctor create(Doctor doctor) throws DaoException {
         final String sql = "INSERT INTO doctor_records (last_name, first_name, email, specializations_list, availability_status) VALUES (?, ?, ?, ?, ?)";
-        try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, doctor.getLastName());
-            ps.setString(2, doctor.getFirstName());
-            ps.setString(3, doctor.getEmail());
-            ps.setString(4, serializeSpecializations(doctor.getSpecializationIds()));
-            ps.setString(5, doctor.getAvailabilityStatus().toDatabaseValue());
-            ps.executeUpdate();
-            try (ResultSet keys = ps.getGeneratedKeys()) {
-                if (keys.next()) {
-                    doctor.setDoctorId(keys.getInt(1));
+        try {
+            return inTransaction(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    ps.setString(1, doctor.getLastName());
+                    ps.setString(2, doctor.getFirstName());
+                    ps.setString(3, doctor.getEmail());
+                    ps.setString(4, serializeSpecializations(doctor.getSpecializationIds()));
+                    ps.setString(5, doctor.getAvailabilityStatus().toDatabaseValue());
+                    ps.executeUpdate();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            doctor.setDoctorId(keys.getInt(1));
+                        }
+                    }
                 }
-            }
-            return findById(doctor.getDoctorId()).orElse(doctor);
+                writeSpecializationLinks(connection, List.of(doctor), false);
+                return findById(doctor.getDoctorId()).orElse(doctor);
+            });
         } catch (SQLException ex) {
             throw translateException("Failed to create doctor", ex);
         }
@@ -82,15 +93,23 @@ public class DoctorJdbcDao extends AbstractJdbcDao implements DoctorDAO {
     @Override
     public boolean update(Doctor doctor) throws DaoException {
         final String sql = "UPDATE doctor_records SET last_name = ?, first_name = ?, email = ?, specializations_list = ?, availability_status = ? WHERE doctor_id = ?";
-        try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, doctor.getLastName());
-            ps.setString(2, doctor.getFirstName());
-            ps.setString(3, doctor.getEmail());
-            ps.setString(4, serializeSpecializations(doctor.getSpecializationIds()));
-            ps.setString(5, doctor.getAvailabilityStatus().toDatabaseValue());
-            ps.setInt(6, doctor.getDoctorId());
-            return ps.executeUpdate() == 1;
+        try {
+            return inTransaction(connection -> {
+                boolean updated;
+                try (PreparedStatement ps = prepareCached(connection, sql)) {
+                    ps.setString(1, doctor.getLastName());
+                    ps.setString(2, doctor.getFirstName());
+                    ps.setString(3, doctor.getEmail());
+                    ps.setString(4, serializeSpecializations(doctor.getSpecializationIds()));
+                    ps.setString(5, doctor.getAvailabilityStatus().toDatabaseValue());
+                    ps.setInt(6, doctor.getDoctorId());
+                    updated = ps.executeUpdate() == 1;
+                }
+                if (updated) {
+                    writeSpecializationLinks(connection, List.of(doctor), true);
+                }
+                return updated;
+            });
         } catch (SQLException ex) {
             throw translateException("Failed to update doctor with id=" + doctor.getDoctorId(), ex);
         }
@@ -100,7 +119,7 @@ public class DoctorJdbcDao extends AbstractJdbcDao implements DoctorDAO {
     public boolean delete(Integer id) throws DaoException {
         final String sql = "DELETE FROM doctor_records WHERE doctor_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, id);
             return ps.executeUpdate() == 1;
         } catch (SQLException ex) {
@@ -110,10 +129,10 @@ public class DoctorJdbcDao extends AbstractJdbcDao implements DoctorDAO {
 
     @Override
     public List<Doctor> findBySpecialization(int specializationId) throws DaoException {
-        final String sql = BASE_SELECT + "WHERE JSON_CONTAINS(specializations_list, ?, '$')" + ORDER_BY;
+        final String sql = BASE_SELECT + SPECIALIZATION_JOIN + "WHERE ds.specialization_id = ?" + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, String.valueOf(specializationId));
+             PreparedStatement ps = prepareCached(connection, sql)) {
+            ps.setInt(1, specializationId);
             try (ResultSet rs = ps.executeQuery()) {
                 List<Doctor> doctors = new ArrayList<>();
                 while (rs.next()) {
@@ -132,7 +151,7 @@ public class DoctorJdbcDao extends AbstractJdbcDao implements DoctorDAO {
             "INNER JOIN doctor_branch_assignment dba ON doctor_records.doctor_id = dba.doctor_id " +
             "WHERE dba.branch_id = ?" + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, branchId);
             try (ResultSet rs = ps.executeQuery()) {
                 List<Doctor> doctors = new ArrayList<>();
@@ -152,21 +171,17 @@ public class DoctorJdbcDao extends AbstractJdbcDao implements DoctorDAO {
             return findByBranchId(branchId);
         }
 
-        StringBuilder sql = new StringBuilder(BASE_SELECT);
-        sql.append("INNER JOIN doctor_branch_assignment dba ON doctor_records.doctor_id = dba.doctor_id ");
-        sql.append("WHERE dba.branch_id = ? AND (");
-        for (int i = 0; i < specializationIds.size(); i++) {
-            if (i > 0) sql.append(" OR ");
-            sql.append("JSON_CONTAINS(specializations_list, ?, '$')");
-        }
-        sql.append(")").append(ORDER_BY);
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(specializationIds));
+        final String sql = BASE_SELECT +
+            "INNER JOIN doctor_branch_assignment dba ON doctor_records.doctor_id = dba.doctor_id " +
+            "WHERE dba.branch_id = ? AND EXISTS (SELECT 1 FROM doctor_specialization ds " +
+            "WHERE ds.doctor_id = doctor_records.doctor_id AND ds.specialization_id IN " + paddedInList(distinctIds.size()) + ")" +
+            ORDER_BY;
 
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, branchId);
-            for (int i = 0; i < specializationIds.size(); i++) {
-                ps.setString(i + 2, String.valueOf(specializationIds.get(i)));
-            }
+            bindPaddedInList(ps, 2, distinctIds);
             try (ResultSet rs = ps.executeQuery()) {
                 List<Doctor> doctors = new ArrayList<>();
                 while (rs.next()) {
@@ -183,7 +198,7 @@ public class DoctorJdbcDao extends AbstractJdbcDao implements DoctorDAO {
     public List<Doctor> findByAvailabilityStatus(DoctorAvailabilityStatus status) throws DaoException {
         final String sql = BASE_SELECT + "WHERE availability_status = ?" + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setString(1, status.toDatabaseValue());
             try (ResultSet rs = ps.executeQuery()) {
                 List<Doctor> doctors = new ArrayList<>();
@@ -204,7 +219,7 @@ public class DoctorJdbcDao extends AbstractJdbcDao implements DoctorDAO {
                 "INNER JOIN doctor_branch_assignment dba ON b.branch_id = dba.branch_id " +
                 "WHERE dba.doctor_id = ? ORDER BY b.branch_name";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, doctorId);
             try (ResultSet rs = ps.executeQuery()) {
                 List<Branch> branches = new ArrayList<>();
@@ -218,20 +233,34 @@ public class DoctorJdbcDao extends AbstractJdbcDao implements DoctorDAO {
         }
     }
 
+    @Override
+    public Map<Integer, List<Integer>> findAllBranchAssignments() throws DaoException {
+        final String sql = "SELECT doctor_id, branch_id FROM doctor_branch_assignment ORDER BY doctor_id, branch_id";
+        try (Connection connection = getConnection();
+             PreparedStatement ps = prepareCached(connection, sql);
+             ResultSet rs = ps.executeQuery()) {
+            Map<Integer, List<Integer>> assignments = new HashMap<>();
+            while (rs.next()) {
+                assignments.computeIfAbsent(rs.getInt("doctor_id"), id -> new ArrayList<>()).add(rs.getInt("branch_id"));
+            }
+            return assignments;
+        } catch (SQLException ex) {
+            throw translateException("Failed to fetch doctor branch assignments", ex);
+        }
+    }
+
     @Override
     public void updateBranchAssignments(int doctorId, List<Integer> branchIds) throws DaoException {
         final String deleteSql = "DELETE FROM doctor_branch_assignment WHERE doctor_id = ?";
         final String insertSql = "INSERT INTO doctor_branch_assignment (doctor_id, branch_id) VALUES (?, ?)";
-        try (Connection connection = getConnection()) {
-            boolean originalAutoCommit = connection.getAutoCommit();
-            try {
-                connection.setAutoCommit(false);
-                try (PreparedStatement deleteStmt = connection.prepareStatement(deleteSql)) {
+        try {
+            inTransaction(connection -> {
+                try (PreparedStatement deleteStmt = prepareCached(connection, deleteSql)) {
                     deleteStmt.setInt(1, doctorId);
                     deleteStmt.executeUpdate();
                 }
                 if (branchIds != null && !branchIds.isEmpty()) {
-                    try (PreparedStatement insertStmt = connection.prepareStatement(insertSql)) {
+                    try (PreparedStatement insertStmt = prepareCached(connection, insertSql)) {
                         for (Integer branchId : branchIds) {
                             insertStmt.setInt(1, doctorId);
                             insertStmt.setInt(2, branchId);
@@ -240,22 +269,96 @@ public class DoctorJdbcDao extends AbstractJdbcDao implements DoctorDAO {
                         insertStmt.executeBatch();
                     }
                 }
-                connection.commit();
-            } catch (SQLException ex) {
-                try {
-                    connection.rollback();
-                } catch (SQLException rollbackEx) {
-                    throw translateException("Failed to rollback branch assignments for doctor id=" + doctorId, rollbackEx);
-                }
-                throw translateException("Failed to update branch assignments for doctor id=" + doctorId, ex);
-            } finally {
-                connection.setAutoCommit(originalAutoCommit);
-            }
+                return null;
+            });
         } catch (SQLException ex) {
             throw translateException("Failed to update branch assignments for doctor id=" + doctorId, ex);
         }
     }
 
+    @Override
+    public List<Doctor> createAll(List<Doctor> doctors) throws DaoException {
+        try {
+            inTransaction(connection -> {
+                batchInsert(INSERT_PREFIX, INSERT_ROW, doctors, this::bindColumns, Doctor::setDoctorId);
+                writeSpecializationLinks(connection, doctors, false);
+                return null;
+            });
+            return doctors;
+        } catch (SQLException ex) {
+            throw translateException("Failed to create " + doctors.size() + " doctors", ex);
+        }
+    }
+
+    @Override
+    public int updateAll(List<Doctor> doctors) throws DaoException {
+        final String sql = "UPDATE doctor_records SET last_name = ?, first_name = ?, email = ?, specializations_list = ?, availability_status = ? WHERE doctor_id = ?";
+        try {
+            return inTransaction(connection -> {
+                int updated = batchUpdate(sql, doctors, (ps, offset, doctor) -> {
+                    bindColumns(ps, offset, doctor);
+                    ps.setInt(offset + 6, doctor.getDoctorId());
+                });
+                writeSpecializationLinks(connection, doctors, true);
+                return updated;
+            });
+        } catch (SQLException ex) {
+            throw translateException("Failed to update " + doctors.size() + " doctors", ex);
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<Integer> ids) throws DaoException {
+        try {
+            return batchDelete("DELETE FROM doctor_records WHERE doctor_id IN ", ids);
+        } catch (SQLException ex) {
+            throw translateException("Failed to delete " + ids.size() + " doctors", ex);
+        }
+    }
+
+    /**
+     * Mirrors each doctor's specialization ids into {@code doctor_specialization}, the indexed copy the finders
+     * join against. Rows are only written for doctors that exist, so an update of a missing doctor stays a no-op.
+     */
+    private void writeSpecializationLinks(Connection connection, List<Doctor> doctors, boolean replaceExisting) throws SQLException {
+        if (replaceExisting) {
+            try (PreparedStatement delete = prepareCached(connection, "DELETE FROM doctor_specialization WHERE doctor_id = ?")) {
+                for (Doctor doctor : doctors) {
+                    delete.setInt(1, doctor.getDoctorId());
+                    delete.addBatch();
+                }
+                delete.executeBatch();
+            }
+        }
+        final String insertSql = "INSERT INTO doctor_specialization (doctor_id, specialization_id) " +
+            "SELECT doctor_id, ? FROM doctor_records WHERE doctor_id = ?";
+        try (PreparedStatement insert = prepareCached(connection, insertSql)) {
+            int pending = 0;
+            for (Doctor doctor : doctors) {
+                if (doctor.getSpecializationIds() == null) {
+                    continue;
+                }
+                for (Integer specializationId : new LinkedHashSet<>(doctor.getSpecializationIds())) {
+                    insert.setInt(1, specializationId);
+                    insert.setInt(2, doctor.getDoctorId());
+                    insert.addBatch();
+                    pending++;
+                }
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+            }
+        }
+    }
+
+    private void bindColumns(PreparedStatement ps, int offset, Doctor doctor) throws SQLException {
+        ps.setString(offset + 1, doctor.getLastName());
+        ps.setString(offset + 2, doctor.getFirstName());
+        ps.setString(offset + 3, doctor.getEmail());
+        ps.setString(offset + 4, serializeSpecializations(doctor.getSpecializationIds()));
+        ps.setString(offset + 5, doctor.getAvailabilityStatus().toDatabaseValue());
+    }
+
     private Doctor mapRow(ResultSet rs) throws SQLException {
         int doctorId = rs.getInt("doctor_id");
         String lastName = rs.getString("last_name");
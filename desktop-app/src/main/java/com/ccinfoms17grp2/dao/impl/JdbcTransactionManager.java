@@ -0,0 +1,147 @@
+package com.ccinfoms17grp2.dao.impl;
+
+import com.ccinfoms17grp2.dao.DaoException;
+import com.ccinfoms17grp2.dao.TransactionManager;
+import com.ccinfoms17grp2.utils.DatabaseConnection;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Thread-bound JDBC transactions. While a transaction is open, {@link AbstractJdbcDao#getConnection()}
+ * on the same thread and data source returns the transaction's connection instead of borrowing a new one.
+ * <p>
+ * DAO code keeps its usual shape: closing that connection is a no-op, and {@code setAutoCommit}/{@code commit}
+ * calls made by a DAO that manages its own transaction are ignored so the outer scope decides. A DAO-level
+ * {@code rollback()} marks the whole unit of work rollback-only.
+ */
+public class JdbcTransactionManager implements TransactionManager {
+
+    private static final ThreadLocal<BoundTransaction> CURRENT = new ThreadLocal<>();
+
+    private final DataSource dataSource;
+
+    public JdbcTransactionManager() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public JdbcTransactionManager(DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+    }
+
+    @Override
+    public <T> T inTransaction(Supplier<T> work) throws DaoException {
+        Objects.requireNonNull(work, "work");
+        try {
+            return execute(dataSource, connection -> work.get());
+        } catch (SQLException ex) {
+            throw new DaoException("Transaction failed", ex);
+        }
+    }
+
+    /**
+     * Connection for DAO calls on this thread when a transaction over {@code dataSource} is open, otherwise
+     * {@code null}.
+     */
+    static Connection boundConnection(DataSource dataSource) {
+        BoundTransaction current = CURRENT.get();
+        return current != null && current.dataSource == dataSource ? current.participant : null;
+    }
+
+    /**
+     * Runs {@code work} inside the transaction already bound to this thread, or in a new one that is committed
+     * when {@code work} returns normally and rolled back otherwise.
+     */
+    static <T> T execute(DataSource dataSource, AbstractJdbcDao.ConnectionCallback<T> work) throws SQLException {
+        BoundTransaction current = CURRENT.get();
+        if (current != null) {
+            if (current.dataSource != dataSource) {
+                throw new SQLException("A transaction on a different data source is already open on this thread");
+            }
+            try {
+                return work.doInConnection(current.participant);
+            } catch (SQLException | RuntimeException | Error ex) {
+                current.rollbackOnly = true;
+                throw ex;
+            }
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            BoundTransaction transaction = new BoundTransaction(dataSource, connection);
+            CURRENT.set(transaction);
+            T result;
+            try {
+                result = work.doInConnection(transaction.participant);
+            } catch (SQLException | RuntimeException | Error ex) {
+                rollbackAfterFailure(connection, ex);
+                throw ex;
+            } finally {
+                CURRENT.remove();
+            }
+            if (transaction.rollbackOnly) {
+                connection.rollback();
+                throw new SQLException("Transaction was marked rollback-only and has been rolled back");
+            }
+            connection.commit();
+            return result;
+        }
+    }
+
+    private static void rollbackAfterFailure(Connection connection, Throwable failure) {
+        try {
+            connection.rollback();
+        } catch (SQLException rollbackEx) {
+            failure.addSuppressed(rollbackEx);
+        }
+    }
+
+    private static final class BoundTransaction implements InvocationHandler {
+
+        private final DataSource dataSource;
+        private final Connection connection;
+        private final Connection participant;
+        private boolean rollbackOnly;
+
+        private BoundTransaction(DataSource dataSource, Connection connection) {
+            this.dataSource = dataSource;
+            this.connection = connection;
+            this.participant = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                case "commit":
+                case "setAutoCommit":
+                    return null;
+                case "rollback":
+                    if (args == null || args.length == 0) {
+                        rollbackOnly = true;
+                        return null;
+                    }
+                    break;
+                case "equals":
+                    return proxyInstance == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxyInstance);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.ccinfoms17grp2.dao.impl;
 
 import com.ccinfoms17grp2.dao.DaoException;
+import com.ccinfoms17grp2.dao.Page;
+import com.ccinfoms17grp2.dao.PageKey;
 import com.ccinfoms17grp2.dao.PatientDAO;
+import com.ccinfoms17grp2.dao.SortDirection;
 import com.ccinfoms17grp2.models.Patient;
 import com.ccinfoms17grp2.utils.DateTimeUtil;
 
@@ -12,6 +15,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,12 +23,14 @@ public class PatientJdbcDao extends AbstractJdbcDao implements PatientDAO {
 
     private static final String BASE_SELECT = "SELECT patient_id, last_name, first_name, contact_number, email, created_at FROM patient_records ";
     private static final String ORDER_BY = " ORDER BY last_name ASC, first_name ASC";
+    private static final String INSERT_PREFIX = "INSERT INTO patient_records (last_name, first_name, contact_number, email) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?)";
 
     @Override
     public List<Patient> findAll() throws DaoException {
         final String sql = BASE_SELECT + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql);
+             PreparedStatement statement = prepareCached(connection, sql);
              ResultSet rs = statement.executeQuery()) {
             List<Patient> patients = new ArrayList<>();
             while (rs.next()) {
@@ -36,11 +42,20 @@ public class PatientJdbcDao extends AbstractJdbcDao implements PatientDAO {
         }
     }
 
+    @Override
+    public Page<Patient> findPage(PageKey afterKey, int limit, SortDirection sort) throws DaoException {
+        try {
+            return fetchPage(BASE_SELECT, List.of("last_name", "first_name"), "patient_id", afterKey, limit, sort, this::mapRow);
+        } catch (SQLException ex) {
+            throw translateException("Failed to fetch a page of patients", ex);
+        }
+    }
+
     @Override
     public Optional<Patient> findById(Integer id) throws DaoException {
         final String sql = BASE_SELECT + "WHERE patient_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setInt(1, id);
             try (ResultSet rs = statement.executeQuery()) {
                 if (rs.next()) {
@@ -85,7 +100,7 @@ public class PatientJdbcDao extends AbstractJdbcDao implements PatientDAO {
     public boolean update(Patient patient) throws DaoException {
         final String sql = "UPDATE patient_records SET last_name = ?, first_name = ?, contact_number = ?, email = ? WHERE patient_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setString(1, patient.getLastName());
             statement.setString(2, patient.getFirstName());
             statement.setString(3, patient.getContactNumber());
@@ -101,7 +116,7 @@ public class PatientJdbcDao extends AbstractJdbcDao implements PatientDAO {
     public boolean delete(Integer id) throws DaoException {
         final String sql = "DELETE FROM patient_records WHERE patient_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setInt(1, id);
             return statement.executeUpdate() == 1;
         } catch (SQLException ex) {
@@ -113,7 +128,7 @@ public class PatientJdbcDao extends AbstractJdbcDao implements PatientDAO {
     public List<Patient> searchByName(String keyword) throws DaoException {
         final String sql = BASE_SELECT + "WHERE CONCAT(last_name, ' ', first_name) LIKE ?" + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setString(1, "%" + keyword + "%");
             try (ResultSet rs = statement.executeQuery()) {
                 List<Patient> patients = new ArrayList<>();
@@ -127,6 +142,45 @@ public class PatientJdbcDao extends AbstractJdbcDao implements PatientDAO {
         }
     }
 
+    @Override
+    public List<Patient> createAll(List<Patient> patients) throws DaoException {
+        try {
+            batchInsert(INSERT_PREFIX, INSERT_ROW, patients, this::bindColumns, Patient::setPatientId);
+            return patients;
+        } catch (SQLException ex) {
+            throw translateException("Failed to create " + patients.size() + " patients", ex);
+        }
+    }
+
+    @Override
+    public int updateAll(List<Patient> patients) throws DaoException {
+        final String sql = "UPDATE patient_records SET last_name = ?, first_name = ?, contact_number = ?, email = ? WHERE patient_id = ?";
+        try {
+            return batchUpdate(sql, patients, (statement, offset, patient) -> {
+                bindColumns(statement, offset, patient);
+                statement.setInt(offset + 5, patient.getPatientId());
+            });
+        } catch (SQLException ex) {
+            throw translateException("Failed to update " + patients.size() + " patients", ex);
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<Integer> ids) throws DaoException {
+        try {
+            return batchDelete("DELETE FROM patient_records WHERE patient_id IN ", ids);
+        } catch (SQLException ex) {
+            throw translateException("Failed to delete " + ids.size() + " patients", ex);
+        }
+    }
+
+    private void bindColumns(PreparedStatement statement, int offset, Patient patient) throws SQLException {
+        statement.setString(offset + 1, patient.getLastName());
+        statement.setString(offset + 2, patient.getFirstName());
+        statement.setString(offset + 3, patient.getContactNumber());
+        statement.setString(offset + 4, patient.getEmail());
+    }
+
     private Patient mapRow(ResultSet rs) throws SQLException {
         int id = rs.getInt("patient_id");
         String lastName = rs.getString("last_name");
@@ -1,7 +1,11 @@
 package com.ccinfoms17grp2.dao.impl;
 
 import com.ccinfoms17grp2.dao.DaoException;
+import com.ccinfoms17grp2.dao.Page;
+import com.ccinfoms17grp2.dao.PageKey;
 import com.ccinfoms17grp2.dao.QueueDAO;
+import com.ccinfoms17grp2.dao.RowConsumer;
+import com.ccinfoms17grp2.dao.SortDirection;
 import com.ccinfoms17grp2.models.Queue;
 import com.ccinfoms17grp2.models.QueueStatus;
 import com.ccinfoms17grp2.utils.DateTimeUtil;
@@ -13,19 +17,25 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class QueueJdbcDao extends AbstractJdbcDao implements QueueDAO {
 
     private static final String BASE_SELECT = "SELECT queue_id, patient_id, branch_id, queue_number, status, created_at FROM queue_records ";
     private static final String ORDER_BY = " ORDER BY created_at DESC";
+    private static final String INSERT_PREFIX = "INSERT INTO queue_records (patient_id, branch_id, queue_number, status) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?)";
 
     @Override
     public List<Queue> findAll() throws DaoException {
         final String sql = BASE_SELECT + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql);
+             PreparedStatement statement = prepareCached(connection, sql);
              ResultSet rs = statement.executeQuery()) {
             List<Queue> queues = new ArrayList<>();
             while (rs.next()) {
@@ -37,11 +47,29 @@ public class QueueJdbcDao extends AbstractJdbcDao implements QueueDAO {
         }
     }
 
+    @Override
+    public Page<Queue> findPage(PageKey afterKey, int limit, SortDirection sort) throws DaoException {
+        try {
+            return fetchPage(BASE_SELECT, List.of("created_at"), "queue_id", afterKey, limit, sort, this::mapRow);
+        } catch (SQLException ex) {
+            throw translateException("Failed to fetch a page of queues", ex);
+        }
+    }
+
+    @Override
+    public long forEach(RowConsumer<? super Queue> consumer) throws DaoException {
+        try {
+            return streamRows(BASE_SELECT + "ORDER BY queue_id", this::mapRow, consumer);
+        } catch (SQLException ex) {
+            throw translateException("Failed to stream queues", ex);
+        }
+    }
+
     @Override
     public Optional<Queue> findById(Integer id) throws DaoException {
         final String sql = BASE_SELECT + "WHERE queue_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setInt(1, id);
             try (ResultSet rs = statement.executeQuery()) {
                 if (rs.next()) {
@@ -80,7 +108,7 @@ public class QueueJdbcDao extends AbstractJdbcDao implements QueueDAO {
     public boolean update(Queue queue) throws DaoException {
         final String sql = "UPDATE queue_records SET patient_id = ?, branch_id = ?, queue_number = ?, status = ? WHERE queue_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setInt(1, queue.getPatientId());
             statement.setInt(2, queue.getBranchId());
             statement.setInt(3, queue.getQueueNumber());
@@ -92,11 +120,25 @@ public class QueueJdbcDao extends AbstractJdbcDao implements QueueDAO {
         }
     }
 
+    @Override
+    public boolean transitionStatus(int queueId, QueueStatus expectedStatus, QueueStatus newStatus) throws DaoException {
+        final String sql = "UPDATE queue_records SET status = ? WHERE queue_id = ? AND status = ?";
+        try (Connection connection = getConnection();
+             PreparedStatement statement = prepareCached(connection, sql)) {
+            statement.setString(1, newStatus.getValue());
+            statement.setInt(2, queueId);
+            statement.setString(3, expectedStatus.getValue());
+            return statement.executeUpdate() == 1;
+        } catch (SQLException ex) {
+            throw translateException("Failed to transition queue status for id=" + queueId, ex);
+        }
+    }
+
     @Override
     public boolean delete(Integer id) throws DaoException {
         final String sql = "DELETE FROM queue_records WHERE queue_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setInt(1, id);
             return statement.executeUpdate() == 1;
         } catch (SQLException ex) {
@@ -108,7 +150,7 @@ public class QueueJdbcDao extends AbstractJdbcDao implements QueueDAO {
     public List<Queue> findByBranchId(int branchId) throws DaoException {
         final String sql = BASE_SELECT + "WHERE branch_id = ?" + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setInt(1, branchId);
             try (ResultSet rs = statement.executeQuery()) {
                 List<Queue> queues = new ArrayList<>();
@@ -126,7 +168,7 @@ public class QueueJdbcDao extends AbstractJdbcDao implements QueueDAO {
     public List<Queue> findByPatientId(int patientId) throws DaoException {
         final String sql = BASE_SELECT + "WHERE patient_id = ?" + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setInt(1, patientId);
             try (ResultSet rs = statement.executeQuery()) {
                 List<Queue> queues = new ArrayList<>();
@@ -144,7 +186,7 @@ public class QueueJdbcDao extends AbstractJdbcDao implements QueueDAO {
     public List<Queue> findByBranchIdAndStatus(int branchId, String status) throws DaoException {
         final String sql = BASE_SELECT + "WHERE branch_id = ? AND status = ?" + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setInt(1, branchId);
             statement.setString(2, status);
             try (ResultSet rs = statement.executeQuery()) {
@@ -161,9 +203,9 @@ public class QueueJdbcDao extends AbstractJdbcDao implements QueueDAO {
 
     @Override
     public int getNextQueueNumber(int branchId) throws DaoException {
-        final String sql = "SELECT COALESCE(MAX(queue_number), 0) + 1 AS next_number FROM queue_records WHERE branch_id = ? AND DATE(created_at) = CURDATE()";
+        final String sql = "SELECT last_number + 1 AS next_number FROM queue_number_sequence WHERE branch_id = ? AND queue_date = CURDATE()";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setInt(1, branchId);
             try (ResultSet rs = statement.executeQuery()) {
                 if (rs.next()) {
@@ -176,11 +218,38 @@ public class QueueJdbcDao extends AbstractJdbcDao implements QueueDAO {
         }
     }
 
+    @Override
+    public int reserveQueueNumbers(int branchId, int count) throws DaoException {
+        // LAST_INSERT_ID(expr) stores the new counter value in the session, so the increment and the read of
+        // the result cannot interleave with another client's reservation. The day comes from the server clock,
+        // as created_at does, so counters line up with DATE(created_at) and the V001 backfill.
+        final String upsertSql = "INSERT INTO queue_number_sequence (branch_id, queue_date, last_number) VALUES (?, CURDATE(), LAST_INSERT_ID(?)) "
+            + "ON DUPLICATE KEY UPDATE last_number = LAST_INSERT_ID(last_number + ?)";
+        final String lastValueSql = "SELECT LAST_INSERT_ID()";
+        try (Connection connection = getConnection()) {
+            try (PreparedStatement upsert = prepareCached(connection, upsertSql)) {
+                upsert.setInt(1, branchId);
+                upsert.setInt(2, count);
+                upsert.setInt(3, count);
+                upsert.executeUpdate();
+            }
+            try (PreparedStatement statement = prepareCached(connection, lastValueSql);
+                 ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("LAST_INSERT_ID() returned no row");
+                }
+                return rs.getInt(1);
+            }
+        } catch (SQLException ex) {
+            throw translateException("Failed to reserve queue numbers for branch id=" + branchId, ex);
+        }
+    }
+
     @Override
     public List<Queue> findTodaysQueueByBranch(int branchId) throws DaoException {
-        final String sql = BASE_SELECT + "WHERE branch_id = ? AND DATE(created_at) = CURDATE()" + ORDER_BY;
+        final String sql = BASE_SELECT + "WHERE branch_id = ? AND created_at >= CURDATE() AND created_at < CURDATE() + INTERVAL 1 DAY" + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setInt(1, branchId);
             try (ResultSet rs = statement.executeQuery()) {
                 List<Queue> queues = new ArrayList<>();
@@ -196,9 +265,9 @@ public class QueueJdbcDao extends AbstractJdbcDao implements QueueDAO {
     
     @Override
     public List<Queue> findTodaysQueue() throws DaoException {
-        final String sql = BASE_SELECT + "WHERE DATE(created_at) = CURDATE()" + ORDER_BY;
+        final String sql = BASE_SELECT + "WHERE created_at >= CURDATE() AND created_at < CURDATE() + INTERVAL 1 DAY" + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql);
+             PreparedStatement statement = prepareCached(connection, sql);
              ResultSet rs = statement.executeQuery()) {
             List<Queue> queues = new ArrayList<>();
             while (rs.next()) {
@@ -210,6 +279,70 @@ public class QueueJdbcDao extends AbstractJdbcDao implements QueueDAO {
         }
     }
 
+    @Override
+    public Map<Integer, Integer> countTodaysByBranchAndStatus(Collection<Integer> branchIds, QueueStatus status) throws DaoException {
+        Map<Integer, Integer> counts = new HashMap<>();
+        if (branchIds.isEmpty()) {
+            return counts;
+        }
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(branchIds));
+        final String sql = "SELECT branch_id, COUNT(*) AS entries FROM queue_records " +
+            "WHERE branch_id IN " + paddedInList(distinctIds.size()) + " AND status = ? " +
+            "AND created_at >= CURDATE() AND created_at < CURDATE() + INTERVAL 1 DAY GROUP BY branch_id";
+        try (Connection connection = getConnection();
+             PreparedStatement statement = prepareCached(connection, sql)) {
+            int next = bindPaddedInList(statement, 1, distinctIds);
+            statement.setString(next, status.getValue());
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(rs.getInt("branch_id"), rs.getInt("entries"));
+                }
+            }
+            return counts;
+        } catch (SQLException ex) {
+            throw translateException("Failed to count today's queues by branch", ex);
+        }
+    }
+
+    @Override
+    public List<Queue> createAll(List<Queue> queues) throws DaoException {
+        try {
+            batchInsert(INSERT_PREFIX, INSERT_ROW, queues, this::bindColumns, Queue::setQueueId);
+            return queues;
+        } catch (SQLException ex) {
+            throw translateException("Failed to create " + queues.size() + " queues", ex);
+        }
+    }
+
+    @Override
+    public int updateAll(List<Queue> queues) throws DaoException {
+        final String sql = "UPDATE queue_records SET patient_id = ?, branch_id = ?, queue_number = ?, status = ? WHERE queue_id = ?";
+        try {
+            return batchUpdate(sql, queues, (statement, offset, queue) -> {
+                bindColumns(statement, offset, queue);
+                statement.setInt(offset + 5, queue.getQueueId());
+            });
+        } catch (SQLException ex) {
+            throw translateException("Failed to update " + queues.size() + " queues", ex);
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<Integer> ids) throws DaoException {
+        try {
+            return batchDelete("DELETE FROM queue_records WHERE queue_id IN ", ids);
+        } catch (SQLException ex) {
+            throw translateException("Failed to delete " + ids.size() + " queues", ex);
+        }
+    }
+
+    private void bindColumns(PreparedStatement statement, int offset, Queue queue) throws SQLException {
+        statement.setInt(offset + 1, queue.getPatientId());
+        statement.setInt(offset + 2, queue.getBranchId());
+        statement.setInt(offset + 3, queue.getQueueNumber());
+        statement.setString(offset + 4, queue.getStatus().getValue());
+    }
+
     private Queue mapRow(ResultSet rs) throws SQLException {
         int queueId = rs.getInt("queue_id");
         int patientId = rs.getInt("patient_id");
@@ -3,6 +3,9 @@ package com.ccinfoms17grp2.dao.impl;
 import com.ccinfoms17grp2.dao.DaoException;
 import com.ccinfoms17grp2.dao.SpecializationDAO;
 import com.ccinfoms17grp2.models.Specialization;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -10,7 +13,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class SpecializationJdbcDao extends AbstractJdbcDao implements SpecializationDAO {
@@ -22,7 +27,7 @@ public class SpecializationJdbcDao extends AbstractJdbcDao implements Specializa
     public List<Specialization> findAll() throws DaoException {
         final String sql = BASE_SELECT + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql);
+             PreparedStatement ps = prepareCached(connection, sql);
              ResultSet rs = ps.executeQuery()) {
             List<Specialization> result = new ArrayList<>();
             while (rs.next()) {
@@ -38,7 +43,7 @@ public class SpecializationJdbcDao extends AbstractJdbcDao implements Specializa
     public Optional<Specialization> findById(Integer id) throws DaoException {
         final String sql = BASE_SELECT + "WHERE specialization_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -74,7 +79,7 @@ public class SpecializationJdbcDao extends AbstractJdbcDao implements Specializa
     public boolean update(Specialization specialization) throws DaoException {
         final String sql = "UPDATE specialization_records SET specialization_name = ?, specialization_code = ? WHERE specialization_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setString(1, specialization.getSpecializationName());
             ps.setString(2, specialization.getSpecializationCode());
             ps.setInt(3, specialization.getSpecializationId());
@@ -84,13 +89,38 @@ public class SpecializationJdbcDao extends AbstractJdbcDao implements Specializa
         }
     }
 
+    /**
+     * Deletes the specialization and, in the same transaction, removes its id from every doctor's
+     * {@code specializations_list}, the copy doctors are read from. The {@code doctor_specialization} links
+     * go with the row through their cascading foreign key.
+     */
     @Override
     public boolean delete(Integer id) throws DaoException {
-        final String sql = "DELETE FROM specialization_records WHERE specialization_id = ?";
-        try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setInt(1, id);
-            return ps.executeUpdate() == 1;
+        final String selectSql = "SELECT doctor_id, specializations_list FROM doctor_records " +
+            "WHERE JSON_CONTAINS(specializations_list, ?) FOR UPDATE";
+        final String updateSql = "UPDATE doctor_records SET specializations_list = ? WHERE doctor_id = ?";
+        final String deleteSql = "DELETE FROM specialization_records WHERE specialization_id = ?";
+        try {
+            return inTransaction(connection -> {
+                Map<Integer, String> updatedLists = new LinkedHashMap<>();
+                try (PreparedStatement ps = prepareCached(connection, selectSql)) {
+                    ps.setString(1, String.valueOf(id));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            updatedLists.put(rs.getInt("doctor_id"),
+                                withoutSpecialization(rs.getString("specializations_list"), id));
+                        }
+                    }
+                }
+                batchUpdate(updateSql, new ArrayList<>(updatedLists.entrySet()), (ps, offset, entry) -> {
+                    ps.setString(offset + 1, entry.getValue());
+                    ps.setInt(offset + 2, entry.getKey());
+                });
+                try (PreparedStatement ps = prepareCached(connection, deleteSql)) {
+                    ps.setInt(1, id);
+                    return ps.executeUpdate() == 1;
+                }
+            });
         } catch (SQLException ex) {
             throw translateException("Failed to delete specialization with id=" + id, ex);
         }
@@ -100,7 +130,7 @@ public class SpecializationJdbcDao extends AbstractJdbcDao implements Specializa
     public boolean existsByCode(String code) throws DaoException {
         final String sql = "SELECT 1 FROM specialization_records WHERE specialization_code = ?";
         try (Connection connection = getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = prepareCached(connection, sql)) {
             ps.setString(1, code);
             try (ResultSet rs = ps.executeQuery()) {
                 return rs.next();
@@ -110,6 +140,19 @@ public class SpecializationJdbcDao extends AbstractJdbcDao implements Specializa
         }
     }
 
+    /**
+     * {@code specializationsJson} with every occurrence of {@code specializationId} removed.
+     */
+    private static String withoutSpecialization(String specializationsJson, int specializationId) {
+        JsonArray remaining = new JsonArray();
+        for (JsonElement element : JsonParser.parseString(specializationsJson).getAsJsonArray()) {
+            if (element.getAsInt() != specializationId) {
+                remaining.add(element);
+            }
+        }
+        return remaining.toString();
+    }
+
     private Specialization mapRow(ResultSet rs) throws SQLException {
         int id = rs.getInt("specialization_id");
         String name = rs.getString("specialization_name");
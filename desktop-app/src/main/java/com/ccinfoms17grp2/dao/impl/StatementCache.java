@@ -0,0 +1,155 @@
+package com.ccinfoms17grp2.dao.impl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of {@link PreparedStatement}s for one physical connection, keyed by SQL text.
+ * <p>
+ * Callers get a proxy whose {@code close()} clears the parameters and parks the statement for the next
+ * call instead of closing it, so DAO code keeps using try-with-resources. Entries belong to the physical
+ * connection behind the pool proxy and disappear once that connection has been closed by the pool.
+ * <p>
+ * The parse saving on the MySQL side depends on {@code useServerPrepStmts=true} in {@code db.url}. Without
+ * it Connector/J sends every execution as plain statement text and only the client-side preparation is reused.
+ */
+public final class StatementCache {
+
+    private static final int MAX_STATEMENTS_PER_CONNECTION = 64;
+    private static final Map<Connection, StatementCache> CACHES = new ConcurrentHashMap<>();
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private final Connection physical;
+    private final LinkedHashMap<String, CachedStatement> statements =
+            new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() > MAX_STATEMENTS_PER_CONNECTION) {
+                        eldest.getValue().retire();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+
+    private StatementCache(Connection physical) {
+        this.physical = physical;
+    }
+
+    static PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        Connection physical = connection.unwrap(Connection.class);
+        StatementCache cache = CACHES.get(physical);
+        if (cache == null) {
+            purgeClosedConnections();
+            cache = CACHES.computeIfAbsent(physical, StatementCache::new);
+        }
+        return cache.borrow(sql);
+    }
+
+    public static long getHitCount() {
+        return HITS.get();
+    }
+
+    public static long getMissCount() {
+        return MISSES.get();
+    }
+
+    private static void purgeClosedConnections() {
+        CACHES.entrySet().removeIf(entry -> {
+            try {
+                return entry.getKey().isClosed();
+            } catch (SQLException ex) {
+                return true;
+            }
+        });
+    }
+
+    private synchronized PreparedStatement borrow(String sql) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && !cached.inUse && !cached.delegate.isClosed()) {
+            HITS.incrementAndGet();
+            cached.inUse = true;
+            return cached.proxy;
+        }
+        MISSES.incrementAndGet();
+        PreparedStatement delegate = physical.prepareStatement(sql);
+        if (cached != null && cached.inUse) {
+            // Same SQL is already open on this connection; hand out a plain statement for the nested use.
+            return delegate;
+        }
+        cached = new CachedStatement(delegate);
+        cached.inUse = true;
+        statements.put(sql, cached);
+        return cached.proxy;
+    }
+
+    private static final class CachedStatement implements InvocationHandler {
+
+        private final PreparedStatement delegate;
+        private final PreparedStatement proxy;
+        private boolean inUse;
+        private boolean retired;
+
+        private CachedStatement(PreparedStatement delegate) {
+            this.delegate = delegate;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        private void retire() {
+            retired = true;
+            if (!inUse) {
+                closeDelegate();
+            }
+        }
+
+        private void closeDelegate() {
+            try {
+                delegate.close();
+            } catch (SQLException ignored) {
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        inUse = false;
+                        if (retired) {
+                            closeDelegate();
+                        } else {
+                            delegate.clearParameters();
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || delegate.isClosed();
+                case "equals":
+                    return proxyInstance == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxyInstance);
+                default:
+                    break;
+            }
+            if (!inUse) {
+                throw new SQLException("Statement has already been closed");
+            }
+            try {
+                return method.invoke(delegate, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.ccinfoms17grp2.dao.impl;
 
 import com.ccinfoms17grp2.dao.DaoException;
+import com.ccinfoms17grp2.dao.Page;
+import com.ccinfoms17grp2.dao.PageKey;
+import com.ccinfoms17grp2.dao.SortDirection;
 import com.ccinfoms17grp2.dao.UserDAO;
 import com.ccinfoms17grp2.models.User;
 import com.ccinfoms17grp2.utils.DateTimeUtil;
@@ -13,6 +16,7 @@ import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -27,7 +31,7 @@ public class UserJdbcDao extends AbstractJdbcDao implements UserDAO {
     public List<User> findAll() throws DaoException {
         final String sql = BASE_SELECT + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql);
+             PreparedStatement statement = prepareCached(connection, sql);
              ResultSet rs = statement.executeQuery()) {
             List<User> users = new ArrayList<>();
             while (rs.next()) {
@@ -39,11 +43,20 @@ public class UserJdbcDao extends AbstractJdbcDao implements UserDAO {
         }
     }
 
+    @Override
+    public Page<User> findPage(PageKey afterKey, int limit, SortDirection sort) throws DaoException {
+        try {
+            return fetchPage(BASE_SELECT, List.of("email"), "user_id", afterKey, limit, sort, this::mapRow);
+        } catch (SQLException ex) {
+            throw translateException("Failed to fetch a page of users", ex);
+        }
+    }
+
     @Override
     public Optional<User> findById(Integer id) throws DaoException {
         final String sql = BASE_SELECT + "WHERE user_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setInt(1, id);
             try (ResultSet rs = statement.executeQuery()) {
                 if (rs.next()) {
@@ -95,7 +108,7 @@ public class UserJdbcDao extends AbstractJdbcDao implements UserDAO {
     public boolean update(User user) throws DaoException {
         final String sql = "UPDATE users SET email = ?, password_hash = ?, user_type = ?, person_id = ?, is_active = ? WHERE user_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setString(1, user.getEmail());
             statement.setString(2, user.getPasswordHash());
             statement.setString(3, user.getUserType().name());
@@ -112,7 +125,7 @@ public class UserJdbcDao extends AbstractJdbcDao implements UserDAO {
     public boolean delete(Integer id) throws DaoException {
         final String sql = "DELETE FROM users WHERE user_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setInt(1, id);
             return statement.executeUpdate() == 1;
         } catch (SQLException ex) {
@@ -124,7 +137,7 @@ public class UserJdbcDao extends AbstractJdbcDao implements UserDAO {
     public Optional<User> findByEmail(String email) throws DaoException {
         final String sql = BASE_SELECT + "WHERE email = ?";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setString(1, email);
             try (ResultSet rs = statement.executeQuery()) {
                 if (rs.next()) {
@@ -141,7 +154,7 @@ public class UserJdbcDao extends AbstractJdbcDao implements UserDAO {
     public Optional<User> findByEmailAndType(String email, User.UserType userType) throws DaoException {
         final String sql = BASE_SELECT + "WHERE email = ? AND user_type = ?";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setString(1, email);
             statement.setString(2, userType.name());
             try (ResultSet rs = statement.executeQuery()) {
@@ -159,7 +172,7 @@ public class UserJdbcDao extends AbstractJdbcDao implements UserDAO {
     public List<User> findByUserType(User.UserType userType) throws DaoException {
         final String sql = BASE_SELECT + "WHERE user_type = ?" + ORDER_BY;
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setString(1, userType.name());
             try (ResultSet rs = statement.executeQuery()) {
                 List<User> users = new ArrayList<>();
@@ -177,7 +190,7 @@ public class UserJdbcDao extends AbstractJdbcDao implements UserDAO {
     public Optional<User> findByPersonId(int personId) throws DaoException {
         final String sql = BASE_SELECT + "WHERE person_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setInt(1, personId);
             try (ResultSet rs = statement.executeQuery()) {
                 if (rs.next()) {
@@ -194,7 +207,7 @@ public class UserJdbcDao extends AbstractJdbcDao implements UserDAO {
     public boolean updateLastLogin(int userId, LocalDateTime loginTime) throws DaoException {
         final String sql = "UPDATE users SET last_login_at = ? WHERE user_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setTimestamp(1, java.sql.Timestamp.valueOf(loginTime));
             statement.setInt(2, userId);
             return statement.executeUpdate() == 1;
@@ -203,11 +216,24 @@ public class UserJdbcDao extends AbstractJdbcDao implements UserDAO {
         }
     }
 
+    @Override
+    public int updateLastLogins(Map<Integer, LocalDateTime> loginTimes) throws DaoException {
+        final String sql = "UPDATE users SET last_login_at = ? WHERE user_id = ?";
+        try {
+            return batchUpdate(sql, new ArrayList<>(loginTimes.entrySet()), (statement, offset, login) -> {
+                statement.setTimestamp(offset + 1, java.sql.Timestamp.valueOf(login.getValue()));
+                statement.setInt(offset + 2, login.getKey());
+            });
+        } catch (SQLException ex) {
+            throw translateException("Failed to update last login for " + loginTimes.size() + " users", ex);
+        }
+    }
+
     @Override
     public boolean updateActiveStatus(int userId, boolean active) throws DaoException {
         final String sql = "UPDATE users SET is_active = ? WHERE user_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setBoolean(1, active);
             statement.setInt(2, userId);
             return statement.executeUpdate() == 1;
@@ -220,7 +246,7 @@ public class UserJdbcDao extends AbstractJdbcDao implements UserDAO {
     public boolean updatePassword(int userId, String newPasswordHash) throws DaoException {
         final String sql = "UPDATE users SET password_hash = ?, updated_at = CURRENT_TIMESTAMP WHERE user_id = ?";
         try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = prepareCached(connection, sql)) {
             statement.setString(1, newPasswordHash);
             statement.setInt(2, userId);
             return statement.executeUpdate() == 1;
@@ -7,6 +7,7 @@ public class BranchWithDoctors {
     private final Branch branch;
     private final double distanceKm;
     private final List<DoctorAvailabilityInfo> doctors;
+    private boolean fullyEvaluated = true;
 
     public BranchWithDoctors(Branch branch, double distanceKm) {
         this.branch = branch;
@@ -30,6 +31,19 @@ public class BranchWithDoctors {
         this.doctors.add(doctor);
     }
 
+    /**
+     * False when the search deadline passed, or a lookup failed, before this branch's appointment conflicts,
+     * travel time or queue length were known. Doctor colours then reflect schedules only if the conflicts were
+     * missing, and the branch's rank used an estimate for whichever of the other inputs were missing.
+     */
+    public boolean isFullyEvaluated() {
+        return fullyEvaluated;
+    }
+
+    public void setFullyEvaluated(boolean fullyEvaluated) {
+        this.fullyEvaluated = fullyEvaluated;
+    }
+
     public static class DoctorAvailabilityInfo {
         private final Doctor doctor;
         private final AvailabilityColor color;
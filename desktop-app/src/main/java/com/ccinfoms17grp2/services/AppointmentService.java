@@ -1,6 +1,9 @@
 package com.ccinfoms17grp2.services;
 
 import com.ccinfoms17grp2.dao.AppointmentDAO;
+import com.ccinfoms17grp2.dao.Page;
+import com.ccinfoms17grp2.dao.PageKey;
+import com.ccinfoms17grp2.dao.SortDirection;
 import com.ccinfoms17grp2.models.Appointment;
 import com.ccinfoms17grp2.models.AppointmentStatus;
 
@@ -21,6 +24,18 @@ public class AppointmentService {
         return appointmentDAO.findAll();
     }
 
+    /**
+     * Returns appointments newest first, one page at a time.
+     *
+     * @param afterKey cursor from the previous page, or {@code null} to start from the top
+     */
+    public Page<Appointment> listAppointmentsPage(PageKey afterKey, int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Page size must be positive.");
+        }
+        return appointmentDAO.findPage(afterKey, limit, SortDirection.DESCENDING);
+    }
+
     public Optional<Appointment> getAppointmentById(int appointmentId) {
         return appointmentDAO.findById(appointmentId);
     }
@@ -70,20 +85,32 @@ public class AppointmentService {
         return appointmentDAO.findById(appointment.getAppointmentId()).orElse(appointment);
     }
 
-    public boolean cancelAppointment(int appointmentId) {
-        Optional<Appointment> existing = appointmentDAO.findById(appointmentId);
-        if (existing.isEmpty()) {
-            throw new ValidationException("Appointment could not be found.");
-        }
-        return appointmentDAO.updateStatus(appointmentId, AppointmentStatus.CANCELLED);
+    public void cancelAppointment(int appointmentId, AppointmentStatus expectedStatus) {
+        updateAppointmentStatus(appointmentId, expectedStatus, AppointmentStatus.CANCELLED);
     }
 
-    public boolean updateAppointmentStatus(int appointmentId, AppointmentStatus status) {
-        Optional<Appointment> existing = appointmentDAO.findById(appointmentId);
-        if (existing.isEmpty()) {
-            throw new ValidationException("Appointment could not be found.");
+    /**
+     * Moves an appointment from the status the caller last saw to {@code newStatus} with one conditional
+     * UPDATE. Fails if the appointment is gone or someone else changed its status first.
+     */
+    public void updateAppointmentStatus(int appointmentId, AppointmentStatus expectedStatus, AppointmentStatus newStatus) {
+        if (appointmentId <= 0) {
+            throw new ValidationException("Appointment ID is invalid.");
+        }
+        if (expectedStatus == null || newStatus == null) {
+            throw new ValidationException("Appointment status is required.");
+        }
+        if (expectedStatus == newStatus) {
+            throw new ValidationException("Appointment is already " + newStatus.toDatabaseValue() + ".");
+        }
+        if (!appointmentDAO.transitionStatus(appointmentId, expectedStatus, newStatus)) {
+            Optional<Appointment> current = appointmentDAO.findById(appointmentId);
+            if (current.isEmpty()) {
+                throw new ValidationException("Appointment could not be found.");
+            }
+            throw new ValidationException("Appointment #" + appointmentId + " is now "
+                    + current.get().getStatus().toDatabaseValue() + ". It may have been updated by another user.");
         }
-        return appointmentDAO.updateStatus(appointmentId, status);
     }
 
     public void deleteAppointment(int appointmentId) {
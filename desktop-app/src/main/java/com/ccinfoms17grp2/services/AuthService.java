@@ -20,9 +20,11 @@ public class AuthService {
     );
 
     private final UserDAO userDAO;
+    private final LastLoginRecorder lastLogins;
 
-    public AuthService(UserDAO userDAO) {
+    public AuthService(UserDAO userDAO, LastLoginRecorder lastLogins) {
         this.userDAO = Objects.requireNonNull(userDAO, "UserDAO is required");
+        this.lastLogins = Objects.requireNonNull(lastLogins, "LastLoginRecorder is required");
     }
 
     /**
@@ -57,11 +59,8 @@ public class AuthService {
             throw new AuthenticationException("Invalid email or password");
         }
 
-        try {
-            userDAO.updateLastLogin(user.getUserId(), LocalDateTime.now());
-        } catch (DaoException ex) {
-            System.err.println("Failed to update last login time: " + ex.getMessage());
-        }
+        // Written later in a batch; see LastLoginRecorder.
+        lastLogins.record(user.getUserId(), LocalDateTime.now());
 
         return user;
     }
@@ -1,7 +1,5 @@
 package com.ccinfoms17grp2.services;
 
-import com.ccinfoms17grp2.dao.BranchDAO;
-import com.ccinfoms17grp2.dao.DoctorDAO;
 import com.ccinfoms17grp2.models.Branch;
 import com.ccinfoms17grp2.models.Doctor;
 import com.ccinfoms17grp2.models.DoctorAvailabilityStatus;
@@ -9,6 +7,7 @@ import com.ccinfoms17grp2.utils.LocationUtil;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 
@@ -18,12 +17,12 @@ import java.util.Objects;
  */
 public class BranchRecommendationService {
 
-    private final BranchDAO branchDAO;
-    private final DoctorDAO doctorDAO;
+    private final ReferenceDataRegistry referenceData;
+    private final DoctorDirectory doctorDirectory;
 
-    public BranchRecommendationService(BranchDAO branchDAO, DoctorDAO doctorDAO) {
-        this.branchDAO = Objects.requireNonNull(branchDAO);
-        this.doctorDAO = Objects.requireNonNull(doctorDAO);
+    public BranchRecommendationService(ReferenceDataRegistry referenceData, DoctorDirectory doctorDirectory) {
+        this.referenceData = Objects.requireNonNull(referenceData);
+        this.doctorDirectory = Objects.requireNonNull(doctorDirectory);
     }
 
     /**
@@ -76,7 +75,7 @@ public class BranchRecommendationService {
             throw new ValidationException("Invalid patient location coordinates");
         }
 
-        List<Branch> allBranches = branchDAO.findAll();
+        List<Branch> allBranches = referenceData.getBranches();
         List<BranchRecommendation> recommendations = new ArrayList<>();
 
         for (Branch branch : allBranches) {
@@ -102,6 +101,37 @@ public class BranchRecommendationService {
         return recommendations;
     }
 
+    /**
+     * Recommend the nearest branches that have a matching available doctor,
+     * closest first. Uses the branch spatial index, so only branches up to the
+     * {@code maxBranches}-th match are examined.
+     *
+     * @param patientLatitude Patient's latitude
+     * @param patientLongitude Patient's longitude
+     * @param specializationIds List of specialization IDs patient needs
+     * @param maxBranches Maximum number of recommendations
+     * @return Up to {@code maxBranches} recommendations, nearest first
+     */
+    public List<BranchRecommendation> recommendBranches(double patientLatitude, double patientLongitude,
+            List<Integer> specializationIds, int maxBranches) {
+        if (!LocationUtil.isValidLatitude(patientLatitude) || !LocationUtil.isValidLongitude(patientLongitude)) {
+            throw new ValidationException("Invalid patient location coordinates");
+        }
+
+        List<BranchRecommendation> recommendations = new ArrayList<>();
+        Iterator<BranchSpatialIndex.Neighbor> nearest =
+                referenceData.getBranchIndex().nearest(patientLatitude, patientLongitude);
+
+        while (recommendations.size() < maxBranches && nearest.hasNext()) {
+            BranchSpatialIndex.Neighbor neighbor = nearest.next();
+            int doctorCount = countAvailableDoctors(neighbor.getBranch().getBranchId(), specializationIds);
+            if (doctorCount > 0) {
+                recommendations.add(new BranchRecommendation(neighbor.getBranch(), neighbor.getDistanceKm(), doctorCount));
+            }
+        }
+        return recommendations;
+    }
+
     /**
      * Count available doctors at a branch with specific specializations.
      *
@@ -114,9 +144,9 @@ public class BranchRecommendationService {
         try {
             List<Doctor> doctors;
             if (specializationIds == null || specializationIds.isEmpty()) {
-                doctors = doctorDAO.findByBranchId(branchId);
+                doctors = doctorDirectory.findByBranch(branchId);
             } else {
-                doctors = doctorDAO.findByBranchAndSpecializations(branchId, specializationIds);
+                doctors = doctorDirectory.findByBranchAndSpecializations(branchId, specializationIds);
             }
 
             return (int) doctors.stream()
@@ -138,9 +168,9 @@ public class BranchRecommendationService {
     public List<Doctor> getAvailableDoctorsAtBranch(int branchId, List<Integer> specializationIds) {
         List<Doctor> doctors;
         if (specializationIds == null || specializationIds.isEmpty()) {
-            doctors = doctorDAO.findByBranchId(branchId);
+            doctors = doctorDirectory.findByBranch(branchId);
         } else {
-            doctors = doctorDAO.findByBranchAndSpecializations(branchId, specializationIds);
+            doctors = doctorDirectory.findByBranchAndSpecializations(branchId, specializationIds);
         }
 
         List<Doctor> availableDoctors = new ArrayList<>();
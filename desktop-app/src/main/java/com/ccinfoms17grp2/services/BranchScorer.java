@@ -0,0 +1,97 @@
+package com.ccinfoms17grp2.services;
+
+/**
+ * Ranks candidate branches for {@link EnhancedBranchSearchService}.
+ * <p>
+ * The search computes one {@link Features} vector per candidate branch and asks the scorer for a single
+ * number; lower scores rank first. Ties are broken by distance, then by the number of GREEN doctors, then by
+ * the order in which branches were found. Optional features cost extra lookups, so the search fetches them
+ * only when the scorer asks for them.
+ */
+public interface BranchScorer {
+
+    /**
+     * Nearest branch first; equally near branches by GREEN doctor count. This was the original ordering.
+     */
+    BranchScorer NEAREST = Features::getDistanceKm;
+
+    /**
+     * Lower is better.
+     */
+    double score(Features features);
+
+    /**
+     * Whether {@link Features#getTravelMinutes()} is needed; fetching it costs an ORS matrix request.
+     */
+    default boolean usesTravelTime() {
+        return false;
+    }
+
+    /**
+     * Whether {@link Features#getQueueLength()} is needed; fetching it costs one queue query.
+     */
+    default boolean usesQueueLength() {
+        return false;
+    }
+
+    /**
+     * How many of the nearest branches with matching doctors to score in order to return {@code maxBranches}.
+     * Scorers that rank purely by distance need no more than {@code maxBranches}; others should look wider.
+     */
+    default int candidatePoolSize(int maxBranches) {
+        return maxBranches;
+    }
+
+    /**
+     * Per-branch inputs to {@link #score}, computed once per branch and search.
+     */
+    final class Features {
+        private final double distanceKm;
+        private final int greenCount;
+        private final int yellowCount;
+        private final double travelMinutes;
+        private final int queueLength;
+        private final int capacity;
+
+        public Features(double distanceKm, int greenCount, int yellowCount, double travelMinutes,
+                        int queueLength, int capacity) {
+            this.distanceKm = distanceKm;
+            this.greenCount = greenCount;
+            this.yellowCount = yellowCount;
+            this.travelMinutes = travelMinutes;
+            this.queueLength = queueLength;
+            this.capacity = capacity;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+
+        public int getGreenCount() {
+            return greenCount;
+        }
+
+        public int getYellowCount() {
+            return yellowCount;
+        }
+
+        /**
+         * Driving time from the patient; an estimate if ORS did not answer in time, infinite if ORS found no
+         * route, NaN if the scorer did not ask for it.
+         */
+        public double getTravelMinutes() {
+            return travelMinutes;
+        }
+
+        /**
+         * Patients waiting in today's queue; 0 if the scorer did not ask for it or the lookup did not finish.
+         */
+        public int getQueueLength() {
+            return queueLength;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+    }
+}
@@ -10,20 +10,25 @@ import java.util.Optional;
 public class BranchService {
 
     private final BranchDAO branchDAO;
+    private final ReferenceDataRegistry referenceData;
+    private final DoctorDirectory doctorDirectory;
 
-    public BranchService(BranchDAO branchDAO) {
+    public BranchService(BranchDAO branchDAO, ReferenceDataRegistry referenceData, DoctorDirectory doctorDirectory) {
         this.branchDAO = Objects.requireNonNull(branchDAO);
+        this.referenceData = Objects.requireNonNull(referenceData);
+        this.doctorDirectory = Objects.requireNonNull(doctorDirectory);
     }
 
     public List<Branch> listBranches() {
-        return branchDAO.findAll();
+        return referenceData.getBranches();
     }
 
     public Optional<Branch> getBranchById(int branchId) {
         if (branchId <= 0) {
             return Optional.empty();
         }
-        return branchDAO.findById(branchId);
+        Optional<Branch> cached = referenceData.findBranch(branchId);
+        return cached.isPresent() ? cached : branchDAO.findById(branchId);
     }
 
     public Branch createBranch(Branch branch) {
@@ -31,7 +36,9 @@ public class BranchService {
         if (branchDAO.existsByName(branch.getBranchName())) {
             throw new ValidationException("A branch with that name already exists.");
         }
-        return branchDAO.create(branch);
+        Branch created = branchDAO.create(branch);
+        referenceData.refreshBranches();
+        return created;
     }
 
     public Branch updateBranch(Branch branch) {
@@ -47,6 +54,7 @@ public class BranchService {
         if (!updated) {
             throw new ValidationException("Branch record could not be updated.");
         }
+        referenceData.refreshBranches();
         return branchDAO.findById(branch.getBranchId()).orElse(branch);
     }
 
@@ -55,6 +63,9 @@ public class BranchService {
         if (!deleted) {
             throw new ValidationException("Branch could not be deleted. Ensure no doctors or appointments are linked.");
         }
+        referenceData.refreshBranches();
+        // The delete cascades to doctor_branch_assignment.
+        doctorDirectory.invalidate();
     }
 
     private void validate(Branch branch, boolean requireId) {
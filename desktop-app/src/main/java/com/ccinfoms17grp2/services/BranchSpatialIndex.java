@@ -0,0 +1,256 @@
+package com.ccinfoms17grp2.services;
+
+import com.ccinfoms17grp2.models.Branch;
+import com.ccinfoms17grp2.utils.LocationUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * KD-tree over branch coordinates for nearest-first and within-radius lookups.
+ * <p>
+ * Each branch is stored as a point on the unit sphere (x, y, z), where straight-line distance grows with
+ * great-circle distance, so the tree orders branches as {@link LocationUtil#calculateDistance} does (up to
+ * rounding) with no special handling for the antimeridian or the poles. {@link #nearest(double, double)} walks the tree
+ * best-first: a subtree is opened only when its bounding box could hold something closer than what has been
+ * returned so far, so a caller that stops after five branches looks at only a few more than five.
+ * <p>
+ * Instances are immutable and built from one {@link ReferenceDataRegistry} snapshot; branches without
+ * coordinates are left out. Branches at equal distance come out in the order of the list they were built from.
+ */
+public final class BranchSpatialIndex {
+
+    /**
+     * A branch and its great-circle distance from the query point.
+     */
+    public static final class Neighbor {
+        private final Branch branch;
+        private final double distanceKm;
+
+        private Neighbor(Branch branch, double distanceKm) {
+            this.branch = branch;
+            this.distanceKm = distanceKm;
+        }
+
+        public Branch getBranch() {
+            return branch;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    private final Branch[] branches;
+    // Position of branches[i] in the source list, used to break distance ties.
+    private final int[] rank;
+    // Unit-sphere coordinates of branches[i] at [3 * i], [3 * i + 1], [3 * i + 2]; the tree is
+    // points[] sorted in place, each node's median at the middle of its range, splitting on x, y, z in turn.
+    private final double[] points;
+
+    BranchSpatialIndex(List<Branch> source) {
+        List<Branch> located = new ArrayList<>();
+        for (Branch branch : source) {
+            if (branch.getLatitude() != null && branch.getLongitude() != null) {
+                located.add(branch);
+            }
+        }
+        int n = located.size();
+        Integer[] ids = new Integer[n];
+        double[][] xyz = new double[n][];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+            xyz[i] = toUnitVector(located.get(i).getLatitude(), located.get(i).getLongitude());
+        }
+        build(ids, xyz, 0, n, 0);
+
+        this.branches = new Branch[n];
+        this.rank = new int[n];
+        this.points = new double[3 * n];
+        for (int i = 0; i < n; i++) {
+            branches[i] = located.get(ids[i]);
+            rank[i] = ids[i];
+            System.arraycopy(xyz[ids[i]], 0, points, 3 * i, 3);
+        }
+    }
+
+    public int size() {
+        return branches.length;
+    }
+
+    /**
+     * Branches in increasing distance from the given point, produced lazily.
+     */
+    public Iterator<Neighbor> nearest(double latitude, double longitude) {
+        return new NearestIterator(latitude, longitude);
+    }
+
+    /**
+     * The {@code k} branches nearest to the given point, closest first.
+     */
+    public List<Neighbor> nearest(double latitude, double longitude, int k) {
+        List<Neighbor> result = new ArrayList<>(Math.min(Math.max(k, 0), branches.length));
+        Iterator<Neighbor> it = nearest(latitude, longitude);
+        while (result.size() < k && it.hasNext()) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    /**
+     * Branches no farther than {@code radiusKm} from the given point, closest first.
+     */
+    public List<Neighbor> withinRadius(double latitude, double longitude, double radiusKm) {
+        List<Neighbor> result = new ArrayList<>();
+        Iterator<Neighbor> it = nearest(latitude, longitude);
+        while (it.hasNext()) {
+            Neighbor next = it.next();
+            if (next.getDistanceKm() > radiusKm) {
+                break;
+            }
+            result.add(next);
+        }
+        return result;
+    }
+
+    private static void build(Integer[] ids, double[][] xyz, int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        // Branch counts are small, so a full sort per level is cheaper to read than a selection algorithm.
+        Arrays.sort(ids, from, to, Comparator.comparingDouble(id -> xyz[id][axis]));
+        int mid = (from + to) >>> 1;
+        build(ids, xyz, from, mid, (axis + 1) % 3);
+        build(ids, xyz, mid + 1, to, (axis + 1) % 3);
+    }
+
+    private static double[] toUnitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[]{cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat)};
+    }
+
+    /**
+     * Queue entry: either a whole subtree, keyed by the squared chord distance to its bounding box, or a
+     * single branch, keyed by its own squared chord distance. At equal keys subtrees come first so that a
+     * tied branch inside one is still returned in list order.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+        final double key;
+        final int slot;
+        final int rank;
+        final int from;
+        final int to;
+        final int axis;
+        final double[] box;
+
+        Candidate(double key, int slot, int rank) {
+            this(key, slot, rank, 0, 0, 0, null);
+        }
+
+        Candidate(double key, int slot, int rank, int from, int to, int axis, double[] box) {
+            this.key = key;
+            this.slot = slot;
+            this.rank = rank;
+            this.from = from;
+            this.to = to;
+            this.axis = axis;
+            this.box = box;
+        }
+
+        boolean isSubtree() {
+            return box != null;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int byKey = Double.compare(key, other.key);
+            if (byKey != 0) {
+                return byKey;
+            }
+            if (isSubtree() != other.isSubtree()) {
+                return isSubtree() ? -1 : 1;
+            }
+            return Integer.compare(rank, other.rank);
+        }
+    }
+
+    private final class NearestIterator implements Iterator<Neighbor> {
+
+        private final double latitude;
+        private final double longitude;
+        private final double[] query;
+        private final PriorityQueue<Candidate> queue = new PriorityQueue<>();
+
+        NearestIterator(double latitude, double longitude) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.query = toUnitVector(latitude, longitude);
+            if (branches.length > 0) {
+                double[] box = {-1, -1, -1, 1, 1, 1};
+                queue.add(new Candidate(0, -1, -1, 0, branches.length, 0, box));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            expandUntilPoint();
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public Neighbor next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Branch branch = branches[queue.poll().slot];
+            double distance = LocationUtil.calculateDistance(latitude, longitude,
+                branch.getLatitude(), branch.getLongitude());
+            return new Neighbor(branch, distance);
+        }
+
+        private void expandUntilPoint() {
+            while (!queue.isEmpty() && queue.peek().isSubtree()) {
+                Candidate node = queue.poll();
+                int mid = (node.from + node.to) >>> 1;
+                queue.add(new Candidate(squaredDistanceTo(mid), mid, rank[mid]));
+
+                double split = points[3 * mid + node.axis];
+                int nextAxis = (node.axis + 1) % 3;
+                if (mid > node.from) {
+                    double[] lower = node.box.clone();
+                    lower[3 + node.axis] = split;
+                    queue.add(new Candidate(squaredDistanceToBox(lower), -1, -1, node.from, mid, nextAxis, lower));
+                }
+                if (mid + 1 < node.to) {
+                    double[] upper = node.box.clone();
+                    upper[node.axis] = split;
+                    queue.add(new Candidate(squaredDistanceToBox(upper), -1, -1, mid + 1, node.to, nextAxis, upper));
+                }
+            }
+        }
+
+        private double squaredDistanceTo(int slot) {
+            double dx = points[3 * slot] - query[0];
+            double dy = points[3 * slot + 1] - query[1];
+            double dz = points[3 * slot + 2] - query[2];
+            return dx * dx + dy * dy + dz * dz;
+        }
+
+        private double squaredDistanceToBox(double[] box) {
+            double sum = 0;
+            for (int axis = 0; axis < 3; axis++) {
+                double q = query[axis];
+                double d = q < box[axis] ? box[axis] - q : q > box[3 + axis] ? q - box[3 + axis] : 0;
+                sum += d * d;
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.ccinfoms17grp2.services;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker for one external backend (Nominatim or ORS).
+ * <p>
+ * After {@code failureThreshold} consecutive failures the circuit opens and calls fail immediately with
+ * {@link CircuitOpenException} instead of waiting for a timeout. Once {@code openDuration} has passed, one
+ * trial call is let through (half-open); its outcome closes or re-opens the circuit. An optional background
+ * probe feeds the same state, so {@link #isAvailable()} is a cached answer that costs no network call and a
+ * recovered backend is noticed without waiting for user traffic.
+ */
+public class CircuitBreaker implements AutoCloseable {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Thrown, via the returned future, for calls rejected while the circuit is open.
+     */
+    public static class CircuitOpenException extends IOException {
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private ScheduledExecutorService prober;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("failureThreshold must be positive");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Last known health. False only while the circuit is open; a half-open circuit counts as available.
+     */
+    public boolean isAvailable() {
+        return getState() != State.OPEN;
+    }
+
+    /**
+     * Runs {@code call} unless the circuit is open, recording its outcome. Only transport errors, timeouts and
+     * server errors count as failures. A 4xx answer ({@link JsonHttpClient#isClientError}) shows the backend is
+     * up and counts as a success. Cancellation counts as neither.
+     */
+    public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> call) {
+        if (!tryAcquire()) {
+            return CompletableFuture.failedFuture(new CircuitOpenException(name + " is unavailable"));
+        }
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException ex) {
+            recordFailure();
+            throw ex;
+        }
+        // Record on a dependent stage returned to the caller, so the state is updated before any of the
+        // caller's own stages run.
+        return JsonHttpClient.cancelling(result.whenComplete((value, error) -> {
+            if (error == null) {
+                recordSuccess();
+            } else if (JsonHttpClient.unwrap(error) instanceof CancellationException) {
+                releaseTrial();
+            } else if (JsonHttpClient.isClientError(error)) {
+                recordSuccess();
+            } else {
+                recordFailure();
+            }
+        }), result);
+    }
+
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            System.out.println("[CircuitBreaker] " + name + " recovered, closing circuit");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state != State.CLOSED || consecutiveFailures >= failureThreshold) {
+            open("failed " + consecutiveFailures + " times");
+        }
+    }
+
+    private synchronized void open(String reason) {
+        if (state == State.CLOSED) {
+            System.err.println("[CircuitBreaker] " + name + " " + reason + ", opening circuit");
+        }
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        trialInFlight = false;
+    }
+
+    /**
+     * Runs {@code probe} every {@code interval} on a daemon thread, starting now. A probe that completes
+     * with {@code true} closes the circuit; {@code false} or a failure opens it straight away.
+     */
+    public synchronized void startHealthProbe(Supplier<CompletableFuture<Boolean>> probe, Duration interval) {
+        if (prober != null) {
+            return;
+        }
+        prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "health-probe-" + name.toLowerCase());
+            thread.setDaemon(true);
+            return thread;
+        });
+        prober.scheduleWithFixedDelay(() -> {
+            boolean healthy;
+            try {
+                healthy = Boolean.TRUE.equals(probe.get().get());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                healthy = false;
+            }
+            if (healthy) {
+                recordSuccess();
+            } else {
+                open("health probe failed");
+            }
+        }, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (prober != null) {
+            prober.shutdownNow();
+            prober = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{" + name + ", state=" + getState() + "}";
+    }
+
+    private synchronized boolean tryAcquire() {
+        State current = getState();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void releaseTrial() {
+        trialInFlight = false;
+    }
+}
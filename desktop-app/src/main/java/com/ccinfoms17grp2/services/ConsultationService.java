@@ -1,6 +1,11 @@
 package com.ccinfoms17grp2.services;
 
 import com.ccinfoms17grp2.dao.ConsultationDAO;
+import com.ccinfoms17grp2.dao.Page;
+import com.ccinfoms17grp2.dao.PageKey;
+import com.ccinfoms17grp2.dao.SortDirection;
+import com.ccinfoms17grp2.dao.TransactionManager;
+import com.ccinfoms17grp2.models.AppointmentStatus;
 import com.ccinfoms17grp2.models.Consultation;
 
 import java.util.List;
@@ -10,15 +15,32 @@ import java.util.Optional;
 public class ConsultationService {
 
     private final ConsultationDAO consultationDAO;
+    private final AppointmentService appointmentService;
+    private final TransactionManager transactionManager;
 
-    public ConsultationService(ConsultationDAO consultationDAO) {
+    public ConsultationService(ConsultationDAO consultationDAO, AppointmentService appointmentService,
+                               TransactionManager transactionManager) {
         this.consultationDAO = Objects.requireNonNull(consultationDAO);
+        this.appointmentService = Objects.requireNonNull(appointmentService);
+        this.transactionManager = Objects.requireNonNull(transactionManager);
     }
 
     public List<Consultation> listConsultations() {
         return consultationDAO.findAll();
     }
 
+    /**
+     * Returns consultations most recently recorded first, one page at a time.
+     *
+     * @param afterKey cursor from the previous page, or {@code null} to start from the top
+     */
+    public Page<Consultation> listConsultationsPage(PageKey afterKey, int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Page size must be positive.");
+        }
+        return consultationDAO.findPage(afterKey, limit, SortDirection.DESCENDING);
+    }
+
     public Optional<Consultation> getConsultationById(int consultationId) {
         return consultationDAO.findById(consultationId);
     }
@@ -40,6 +62,22 @@ public class ConsultationService {
         return consultationDAO.create(consultation);
     }
 
+    /**
+     * Records the consultation and marks its appointment completed as one unit of work: both rows are
+     * written on one connection and committed together, or neither is.
+     *
+     * @param expectedStatus the appointment status the caller last saw
+     */
+    public Consultation completeAppointmentWithConsultation(Consultation consultation, AppointmentStatus expectedStatus) {
+        validate(consultation, false);
+        return transactionManager.inTransaction(() -> {
+            Consultation created = consultationDAO.create(consultation);
+            appointmentService.updateAppointmentStatus(consultation.getAppointmentId(), expectedStatus,
+                    AppointmentStatus.COMPLETED);
+            return created;
+        });
+    }
+
     public Consultation updateConsultation(Consultation consultation) {
         validate(consultation, true);
         Optional<Consultation> existing = consultationDAO.findById(consultation.getConsultationId());
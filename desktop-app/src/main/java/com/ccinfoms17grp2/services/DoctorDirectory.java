@@ -0,0 +1,185 @@
+package com.ccinfoms17grp2.services;
+
+import com.ccinfoms17grp2.dao.DoctorDAO;
+import com.ccinfoms17grp2.models.Doctor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * In-memory snapshot of all doctors for the branch search paths.
+ * <p>
+ * Each doctor is stored with its specializations as a sorted {@code int[]} and with its branch assignments
+ * already joined, so "doctors at branch X with any of specializations Y" is answered from memory with no
+ * JSON parsing and no database round trip. The snapshot is built from one {@link DoctorDAO#findAll()} and
+ * one {@link DoctorDAO#findAllBranchAssignments()} call, dropped by {@link #invalidate()} after every
+ * {@link DoctorService} write, and reloaded on the next read. It is also reloaded once it is older than the
+ * configured maximum age, to pick up changes made by other clients.
+ * <p>
+ * The returned {@link Doctor} objects are shared between readers and must be treated as read-only.
+ */
+public class DoctorDirectory {
+
+    private final DoctorDAO doctorDAO;
+    private final long maxAgeNanos;
+    private final Object loadLock = new Object();
+    private volatile Snapshot snapshot;
+    private long generation;
+
+    public DoctorDirectory(DoctorDAO doctorDAO, Duration maxAge) {
+        this.doctorDAO = Objects.requireNonNull(doctorDAO);
+        this.maxAgeNanos = Objects.requireNonNull(maxAge).toNanos();
+    }
+
+    /**
+     * Doctors assigned to the branch, ordered by last name then first name like {@link DoctorDAO#findByBranchId}.
+     */
+    public List<Doctor> findByBranch(int branchId) {
+        Entry[] entries = snapshot().byBranch.get(branchId);
+        if (entries == null) {
+            return List.of();
+        }
+        List<Doctor> doctors = new ArrayList<>(entries.length);
+        for (Entry entry : entries) {
+            doctors.add(entry.doctor);
+        }
+        return doctors;
+    }
+
+    /**
+     * Doctors assigned to the branch who have ANY of the given specializations. An empty or null list matches
+     * every doctor at the branch, as in {@link DoctorDAO#findByBranchAndSpecializations}.
+     */
+    public List<Doctor> findByBranchAndSpecializations(int branchId, List<Integer> specializationIds) {
+        if (specializationIds == null || specializationIds.isEmpty()) {
+            return findByBranch(branchId);
+        }
+        Entry[] entries = snapshot().byBranch.get(branchId);
+        if (entries == null) {
+            return List.of();
+        }
+        int[] wanted = toSortedArray(specializationIds);
+        List<Doctor> doctors = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (intersects(entry.specializationIds, wanted)) {
+                doctors.add(entry.doctor);
+            }
+        }
+        return doctors;
+    }
+
+    public Optional<Doctor> findDoctor(int doctorId) {
+        Entry entry = snapshot().byId.get(doctorId);
+        return entry == null ? Optional.empty() : Optional.of(entry.doctor);
+    }
+
+    public boolean hasSpecialization(int doctorId, int specializationId) {
+        Entry entry = snapshot().byId.get(doctorId);
+        return entry != null && Arrays.binarySearch(entry.specializationIds, specializationId) >= 0;
+    }
+
+    /**
+     * Drops the current snapshot; the next read loads a fresh one. A load that was already running when this
+     * was called is not published.
+     */
+    public void invalidate() {
+        synchronized (loadLock) {
+            generation++;
+            snapshot = null;
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null && System.nanoTime() - current.loadedAt < maxAgeNanos) {
+            return current;
+        }
+        long expectedGeneration;
+        synchronized (loadLock) {
+            current = snapshot;
+            if (current != null && System.nanoTime() - current.loadedAt < maxAgeNanos) {
+                return current;
+            }
+            expectedGeneration = generation;
+        }
+        // Load outside the lock so a slow query does not block invalidate(); concurrent loaders may race.
+        Snapshot loaded = new Snapshot(doctorDAO.findAll(), doctorDAO.findAllBranchAssignments());
+        synchronized (loadLock) {
+            if (generation == expectedGeneration) {
+                snapshot = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    private static int[] toSortedArray(List<Integer> ids) {
+        int[] values = new int[ids.size()];
+        int count = 0;
+        for (Integer id : ids) {
+            if (id != null) {
+                values[count++] = id;
+            }
+        }
+        values = Arrays.copyOf(values, count);
+        Arrays.sort(values);
+        return values;
+    }
+
+    private static boolean intersects(int[] left, int[] right) {
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] == right[j]) {
+                return true;
+            }
+            if (left[i] < right[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return false;
+    }
+
+    private static final class Entry {
+
+        private final Doctor doctor;
+        private final int[] specializationIds;
+
+        private Entry(Doctor doctor) {
+            this.doctor = doctor;
+            this.specializationIds = toSortedArray(doctor.getSpecializationIds());
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final long loadedAt = System.nanoTime();
+        private final Map<Integer, Entry> byId;
+        private final Map<Integer, Entry[]> byBranch;
+
+        private Snapshot(List<Doctor> doctors, Map<Integer, List<Integer>> branchAssignments) {
+            Map<Integer, Entry> idIndex = new HashMap<>();
+            Map<Integer, List<Entry>> branchIndex = new HashMap<>();
+            for (Doctor doctor : doctors) {
+                Entry entry = new Entry(doctor);
+                idIndex.put(doctor.getDoctorId(), entry);
+                for (Integer branchId : branchAssignments.getOrDefault(doctor.getDoctorId(), List.of())) {
+                    branchIndex.computeIfAbsent(branchId, id -> new ArrayList<>()).add(entry);
+                }
+            }
+            Map<Integer, Entry[]> frozen = new HashMap<>();
+            for (Map.Entry<Integer, List<Entry>> branch : branchIndex.entrySet()) {
+                frozen.put(branch.getKey(), branch.getValue().toArray(new Entry[0]));
+            }
+            this.byId = Map.copyOf(idIndex);
+            this.byBranch = Map.copyOf(frozen);
+        }
+    }
+}
@@ -14,10 +14,12 @@ public class DoctorService {
 
     private final DoctorDAO doctorDAO;
     private final SpecializationDAO specializationDAO;
+    private final DoctorDirectory doctorDirectory;
 
-    public DoctorService(DoctorDAO doctorDAO, SpecializationDAO specializationDAO) {
+    public DoctorService(DoctorDAO doctorDAO, SpecializationDAO specializationDAO, DoctorDirectory doctorDirectory) {
         this.doctorDAO = Objects.requireNonNull(doctorDAO);
         this.specializationDAO = Objects.requireNonNull(specializationDAO);
+        this.doctorDirectory = Objects.requireNonNull(doctorDirectory);
     }
 
     public List<Doctor> listDoctors() {
@@ -33,7 +35,9 @@ public class DoctorService {
 
     public Doctor createDoctor(Doctor doctor) {
         validate(doctor, false);
-        return doctorDAO.create(doctor);
+        Doctor created = doctorDAO.create(doctor);
+        doctorDirectory.invalidate();
+        return created;
     }
 
     public Doctor updateDoctor(Doctor doctor) {
@@ -42,6 +46,7 @@ public class DoctorService {
         if (!updated) {
             throw new ValidationException("Doctor record could not be updated.");
         }
+        doctorDirectory.invalidate();
         Optional<Doctor> refreshed = doctorDAO.findById(doctor.getDoctorId());
         return refreshed.orElse(doctor);
     }
@@ -51,6 +56,7 @@ public class DoctorService {
         if (!deleted) {
             throw new ValidationException("Doctor record could not be deleted. It may have scheduled appointments.");
         }
+        doctorDirectory.invalidate();
     }
 
     public List<Doctor> findBySpecialization(int specializationId) {
@@ -84,11 +90,11 @@ public class DoctorService {
     }
 
     public List<Doctor> getDoctorsByBranch(int branchId) {
-        return doctorDAO.findByBranchId(branchId);
+        return doctorDirectory.findByBranch(branchId);
     }
 
     public List<Doctor> getDoctorsByBranchAndSpecializations(int branchId, List<Integer> specializationIds) {
-        return doctorDAO.findByBranchAndSpecializations(branchId, specializationIds);
+        return doctorDirectory.findByBranchAndSpecializations(branchId, specializationIds);
     }
 
     public List<Doctor> getDoctorsByAvailabilityStatus(DoctorAvailabilityStatus status) {
@@ -147,5 +153,6 @@ public class DoctorService {
             throw new ValidationException("Doctor could not be found.");
         }
         doctorDAO.updateBranchAssignments(doctorId, assignments);
+        doctorDirectory.invalidate();
     }
 }
@@ -1,129 +1,250 @@
 package com.ccinfoms17grp2.services;
 
 import com.ccinfoms17grp2.dao.AppointmentDAO;
-import com.ccinfoms17grp2.dao.BranchDAO;
-import com.ccinfoms17grp2.dao.DoctorDAO;
-import com.ccinfoms17grp2.models.Appointment;
+import com.ccinfoms17grp2.dao.QueueDAO;
 import com.ccinfoms17grp2.models.Branch;
 import com.ccinfoms17grp2.models.BranchWithDoctors;
 import com.ccinfoms17grp2.models.Doctor;
 import com.ccinfoms17grp2.models.DoctorAvailabilityStatus;
+import com.ccinfoms17grp2.models.QueueStatus;
 import com.ccinfoms17grp2.utils.AvailabilityParser;
-import com.ccinfoms17grp2.utils.LocationUtil;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class EnhancedBranchSearchService {
+public class EnhancedBranchSearchService implements AutoCloseable {
 
-    private final BranchDAO branchDAO;
-    private final DoctorDAO doctorDAO;
+    private static final Duration DEFAULT_SEARCH_DEADLINE = Duration.ofMillis(250);
+    // Appointment and queue lookups run on their own small pool so that a slow database cannot starve other
+    // work; when the queue is full, further lookups are skipped and their branches reported as not fully evaluated.
+    private static final int EVALUATION_THREADS = 4;
+    private static final int EVALUATION_QUEUE_CAPACITY = 64;
+
+    // Scorer's order, then the original ordering: nearer first, then more GREEN doctors, then discovery order.
+    private static final Comparator<ScoredBranch> BEST_FIRST = Comparator
+        .comparingDouble((ScoredBranch scored) -> scored.score)
+        .thenComparingDouble(scored -> scored.branch.getDistanceKm())
+        .thenComparing(Comparator.comparingInt((ScoredBranch scored) -> scored.greenCount).reversed())
+        .thenComparingInt(scored -> scored.order);
+
+    private final ReferenceDataRegistry referenceData;
+    private final DoctorDirectory doctorDirectory;
     private final AppointmentDAO appointmentDAO;
+    private final QueueDAO queueDAO;
     private final RoutingService routingService;
+    private final BranchScorer scorer;
+    private final Duration searchDeadline;
+    private final ThreadPoolExecutor executor;
+
+    public EnhancedBranchSearchService(ReferenceDataRegistry referenceData, DoctorDirectory doctorDirectory,
+                                       AppointmentDAO appointmentDAO, QueueDAO queueDAO,
+                                       RoutingService routingService, BranchScorer scorer) {
+        this(referenceData, doctorDirectory, appointmentDAO, queueDAO, routingService, scorer, DEFAULT_SEARCH_DEADLINE);
+    }
 
-    public EnhancedBranchSearchService(BranchDAO branchDAO, DoctorDAO doctorDAO, 
-                                       AppointmentDAO appointmentDAO, RoutingService routingService) {
-        this.branchDAO = Objects.requireNonNull(branchDAO);
-        this.doctorDAO = Objects.requireNonNull(doctorDAO);
+    /**
+     * @param scorer Ranks the candidate branches
+     * @param searchDeadline Time budget per search; branches whose lookups have not finished by then are
+     *                       returned with {@link BranchWithDoctors#isFullyEvaluated()} false
+     */
+    public EnhancedBranchSearchService(ReferenceDataRegistry referenceData, DoctorDirectory doctorDirectory,
+                                       AppointmentDAO appointmentDAO, QueueDAO queueDAO,
+                                       RoutingService routingService, BranchScorer scorer,
+                                       Duration searchDeadline) {
+        this.referenceData = Objects.requireNonNull(referenceData);
+        this.doctorDirectory = Objects.requireNonNull(doctorDirectory);
         this.appointmentDAO = Objects.requireNonNull(appointmentDAO);
+        this.queueDAO = Objects.requireNonNull(queueDAO);
         this.routingService = Objects.requireNonNull(routingService);
+        this.scorer = Objects.requireNonNull(scorer);
+        this.searchDeadline = Objects.requireNonNull(searchDeadline);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(EVALUATION_THREADS, EVALUATION_THREADS, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(EVALUATION_QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "branch-search-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Stops the search threads. Intended for application shutdown.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
     }
 
     public List<BranchWithDoctors> searchBranches(double patientLat, double patientLon, 
                                                    int specializationId, 
                                                    LocalDateTime preferredSchedule,
                                                    int maxBranches) {
+        long deadline = System.nanoTime() + searchDeadline.toNanos();
         System.out.println("[EnhancedBranchSearch] Starting search: specializationId=" + specializationId + 
             ", schedule=" + preferredSchedule + ", maxBranches=" + maxBranches);
         
-        List<Branch> allBranches = branchDAO.findAll();
-        System.out.println("[EnhancedBranchSearch] Found " + allBranches.size() + " branches total");
-        
+        BranchSpatialIndex branchIndex = referenceData.getBranchIndex();
+        System.out.println("[EnhancedBranchSearch] Found " + branchIndex.size() + " branches with coordinates");
+
+        // Branches are visited nearest first and the walk stops once the scorer's candidate pool is full and the
+        // next branch is farther than the last one kept, so only a few branches past the pool size are examined.
+        // Doctors come from the in-memory directory. Appointment conflicts, the only database work, are then
+        // checked for all candidate doctors with one query, bounded by the search deadline.
         List<BranchWithDoctors> candidateBranches = new ArrayList<>();
+        List<List<Doctor>> candidateDoctors = new ArrayList<>();
+        double lastCandidateDistance = Double.NaN;
+        int visited = 0;
+        int poolSize = scorer.candidatePoolSize(maxBranches);
 
-        for (Branch branch : allBranches) {
+        Iterator<BranchSpatialIndex.Neighbor> nearest = branchIndex.nearest(patientLat, patientLon);
+        while (nearest.hasNext()) {
+            BranchSpatialIndex.Neighbor neighbor = nearest.next();
+            double distance = neighbor.getDistanceKm();
+            // Branches tied with the last candidate are still read, since the final sort may rank them higher.
+            if (candidateBranches.size() >= poolSize && !(distance <= lastCandidateDistance)) {
+                break;
+            }
+            visited++;
+            Branch branch = neighbor.getBranch();
             try {
-                System.out.println("[EnhancedBranchSearch] Processing branch: " + branch.getBranchName() + 
-                    " (id=" + branch.getBranchId() + ")");
-                
-                if (branch.getLatitude() == null || branch.getLongitude() == null) {
-                    System.out.println("[EnhancedBranchSearch] Skipping branch (no coordinates)");
-                    continue;
-                }
-
-                double distance = LocationUtil.calculateDistance(
-                    patientLat, patientLon, 
-                    branch.getLatitude(), branch.getLongitude()
-                );
-                System.out.println("[EnhancedBranchSearch] Distance: " + distance + " km");
-
-                System.out.println("[EnhancedBranchSearch] Querying doctors for branch " + branch.getBranchId() + 
-                    ", specializationId=" + specializationId);
-                
                 List<Doctor> doctors = specializationId > 0 
-                    ? doctorDAO.findByBranchAndSpecializations(branch.getBranchId(), 
-                        java.util.Collections.singletonList(specializationId))
-                    : doctorDAO.findByBranchId(branch.getBranchId());
+                    ? doctorDirectory.findByBranchAndSpecializations(branch.getBranchId(), 
+                        Collections.singletonList(specializationId))
+                    : doctorDirectory.findByBranch(branch.getBranchId());
 
                 System.out.println("[EnhancedBranchSearch] Branch " + branch.getBranchName() + 
-                    " (id=" + branch.getBranchId() + ") has " + doctors.size() + " doctors");
+                    " (id=" + branch.getBranchId() + ") at " + distance + " km has " + doctors.size() + " doctors");
 
                 if (doctors.isEmpty()) {
                     continue;
                 }
 
-                BranchWithDoctors branchWithDoctors = new BranchWithDoctors(branch, distance);
-
-                for (Doctor doctor : doctors) {
-                    BranchWithDoctors.AvailabilityColor color = determineAvailabilityColor(
-                        doctor, specializationId, preferredSchedule
-                    );
-                    branchWithDoctors.addDoctor(new BranchWithDoctors.DoctorAvailabilityInfo(doctor, color));
-                }
-
-                if (!branchWithDoctors.getDoctors().isEmpty()) {
-                    candidateBranches.add(branchWithDoctors);
-                }
+                candidateBranches.add(new BranchWithDoctors(branch, distance));
+                candidateDoctors.add(doctors);
+                lastCandidateDistance = distance;
             } catch (Exception e) {
                 System.err.println("[EnhancedBranchSearch] ERROR processing branch " + 
                     branch.getBranchName() + ": " + e.getMessage());
                 e.printStackTrace();
             }
         }
+        System.out.println("[EnhancedBranchSearch] Examined " + visited + " of " + branchIndex.size() + " branches");
+
+        CompletableFuture<Set<Integer>> conflictLookup =
+            findDoctorsWithAppointmentNear(candidateDoctors, preferredSchedule, deadline);
+        CompletableFuture<List<RoutingService.RouteResult>> travelLookup = scorer.usesTravelTime()
+            ? findTravelTimes(patientLat, patientLon, candidateBranches)
+            : CompletableFuture.completedFuture(null);
+        CompletableFuture<Map<Integer, Integer>> queueLookup = scorer.usesQueueLength()
+            ? findWaitingCounts(candidateBranches)
+            : CompletableFuture.completedFuture(Collections.emptyMap());
+        awaitUntil(List.of(conflictLookup, travelLookup, queueLookup), deadline);
+
+        // Null when the lookup timed out or failed: no doctor is then shown GREEN, and every branch is flagged.
+        Set<Integer> busyDoctors = completedOrNull(conflictLookup);
+        boolean conflictsKnown = busyDoctors != null;
+        List<RoutingService.RouteResult> routes = completedOrNull(travelLookup);
+        Map<Integer, Integer> waitingCounts = completedOrNull(queueLookup);
+        boolean queueKnown = waitingCounts != null;
+        if (!queueKnown) {
+            waitingCounts = Collections.emptyMap();
+        }
+
+        // Rank with a bounded heap whose head is the worst of the best maxBranches seen so far.
+        PriorityQueue<ScoredBranch> best = new PriorityQueue<>(Math.max(1, maxBranches), BEST_FIRST.reversed());
+        int partial = 0;
+        for (int i = 0; i < candidateBranches.size(); i++) {
+            BranchWithDoctors branchWithDoctors = candidateBranches.get(i);
+            Branch branch = branchWithDoctors.getBranch();
+            boolean complete = conflictsKnown;
+            int green = 0;
+            int yellow = 0;
+            for (Doctor doctor : candidateDoctors.get(i)) {
+                BranchWithDoctors.AvailabilityColor color = determineAvailabilityColor(
+                    doctor, specializationId, preferredSchedule, busyDoctors
+                );
+                branchWithDoctors.addDoctor(new BranchWithDoctors.DoctorAvailabilityInfo(doctor, color));
+                if (color == BranchWithDoctors.AvailabilityColor.GREEN) {
+                    green++;
+                } else if (color == BranchWithDoctors.AvailabilityColor.YELLOW) {
+                    yellow++;
+                }
+            }
+
+            double travelMinutes = Double.NaN;
+            if (scorer.usesTravelTime()) {
+                RoutingService.RouteResult route = routes != null ? routes.get(i) : null;
+                if (routes == null) {
+                    complete = false;
+                    route = RoutingService.estimateRoute(patientLat, patientLon, branch.getLatitude(), branch.getLongitude());
+                }
+                travelMinutes = route != null ? route.getDurationMinutes() : Double.POSITIVE_INFINITY;
+            }
+            if (!queueKnown) {
+                complete = false;
+            }
+            int waiting = waitingCounts.getOrDefault(branch.getBranchId(), 0);
 
-        System.out.println("[EnhancedBranchSearch] Found " + candidateBranches.size() + " candidate branches with doctors");
+            if (!complete) {
+                branchWithDoctors.setFullyEvaluated(false);
+                partial++;
+            }
+            BranchScorer.Features features = new BranchScorer.Features(branchWithDoctors.getDistanceKm(),
+                green, yellow, travelMinutes, waiting, branch.getCapacity());
+            ScoredBranch scored = new ScoredBranch(branchWithDoctors, scorer.score(features), green, i);
+            if (best.size() < maxBranches) {
+                best.add(scored);
+            } else if (maxBranches > 0 && BEST_FIRST.compare(scored, best.peek()) < 0) {
+                best.poll();
+                best.add(scored);
+            }
+        }
 
-        candidateBranches.sort(Comparator
-            .comparingDouble(BranchWithDoctors::getDistanceKm)
-            .thenComparing((b1, b2) -> {
-                long green1 = b1.getDoctors().stream()
-                    .filter(d -> d.getColor() == BranchWithDoctors.AvailabilityColor.GREEN)
-                    .count();
-                long green2 = b2.getDoctors().stream()
-                    .filter(d -> d.getColor() == BranchWithDoctors.AvailabilityColor.GREEN)
-                    .count();
-                return Long.compare(green2, green1);
-            }));
+        System.out.println("[EnhancedBranchSearch] Found " + candidateBranches.size() + " candidate branches with doctors"
+            + (partial > 0 ? " (" + partial + " not fully evaluated within " + searchDeadline.toMillis() + " ms)" : ""));
 
-        List<BranchWithDoctors> results = candidateBranches.stream().limit(maxBranches).collect(Collectors.toList());
+        List<ScoredBranch> ranked = new ArrayList<>(best);
+        ranked.sort(BEST_FIRST);
+        List<BranchWithDoctors> results = new ArrayList<>(ranked.size());
+        for (ScoredBranch scored : ranked) {
+            results.add(scored.branch);
+        }
         System.out.println("[EnhancedBranchSearch] Returning " + results.size() + " branches");
         return results;
     }
 
+    /**
+     * @param busyDoctors Doctors with an appointment near {@code preferredSchedule}, or null if that is unknown;
+     *                    a doctor who may have a conflict is shown YELLOW at best, since booking does not check
+     */
     private BranchWithDoctors.AvailabilityColor determineAvailabilityColor(
-            Doctor doctor, int specializationId, LocalDateTime preferredSchedule) {
+            Doctor doctor, int specializationId, LocalDateTime preferredSchedule, Set<Integer> busyDoctors) {
         
         if (doctor.getAvailabilityStatus() != DoctorAvailabilityStatus.AVAILABLE) {
             return BranchWithDoctors.AvailabilityColor.RED;
         }
 
         boolean matchesSpecialization = specializationId <= 0 || 
-            (doctor.getSpecializationIds() != null && 
-             doctor.getSpecializationIds().contains(specializationId));
+            doctorDirectory.hasSpecialization(doctor.getDoctorId(), specializationId);
 
         if (preferredSchedule == null) {
             return matchesSpecialization 
@@ -131,15 +252,16 @@ public class EnhancedBranchSearchService {
                 : BranchWithDoctors.AvailabilityColor.YELLOW;
         }
 
-        boolean hasAppointmentAtTime = checkIfDoctorHasAppointment(doctor.getDoctorId(), preferredSchedule);
-        if (hasAppointmentAtTime) {
+        if (busyDoctors != null && busyDoctors.contains(doctor.getDoctorId())) {
             return BranchWithDoctors.AvailabilityColor.RED;
         }
 
         boolean matchesSchedule = checkIfDoctorAvailableAtTime(doctor, preferredSchedule);
 
         if (matchesSpecialization && matchesSchedule) {
-            return BranchWithDoctors.AvailabilityColor.GREEN;
+            return busyDoctors != null
+                ? BranchWithDoctors.AvailabilityColor.GREEN
+                : BranchWithDoctors.AvailabilityColor.YELLOW;
         } else if (matchesSpecialization || matchesSchedule) {
             return BranchWithDoctors.AvailabilityColor.YELLOW;
         } else {
@@ -147,21 +269,89 @@ public class EnhancedBranchSearchService {
         }
     }
 
-    private boolean checkIfDoctorHasAppointment(int doctorId, LocalDateTime dateTime) {
+    /**
+     * Looks up, on the search executor, which of the available doctors across all candidate branches have an
+     * appointment within 30 minutes of {@code dateTime}, as one query. A doctor at several branches is asked
+     * about once. Completes exceptionally if the lookup fails or the executor is saturated.
+     * <p>
+     * Cancelling the returned future does not stop a query that is already running, so the query carries its
+     * own timeout, taken from what is left of the search budget when it starts. An abandoned lookup then frees
+     * its executor thread and connection shortly after the deadline instead of holding them until it finishes.
+     */
+    private CompletableFuture<Set<Integer>> findDoctorsWithAppointmentNear(List<List<Doctor>> doctorsByBranch,
+                                                                           LocalDateTime dateTime, long deadline) {
+        Set<Integer> doctorIds = new LinkedHashSet<>();
+        if (dateTime != null) {
+            for (List<Doctor> doctors : doctorsByBranch) {
+                for (Doctor doctor : doctors) {
+                    if (doctor.getAvailabilityStatus() == DoctorAvailabilityStatus.AVAILABLE) {
+                        doctorIds.add(doctor.getDoctorId());
+                    }
+                }
+            }
+        }
+        if (doctorIds.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptySet());
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> appointmentDAO.findDoctorIdsWithAppointmentsBetween(
+                doctorIds, dateTime.minusMinutes(30), dateTime.plusMinutes(30),
+                Duration.ofNanos(deadline - System.nanoTime())
+            ), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<List<RoutingService.RouteResult>> findTravelTimes(double patientLat, double patientLon,
+                                                                        List<BranchWithDoctors> branches) {
+        List<double[]> destinations = new ArrayList<>(branches.size());
+        for (BranchWithDoctors branch : branches) {
+            destinations.add(new double[]{branch.getBranch().getLatitude(), branch.getBranch().getLongitude()});
+        }
+        return routingService.calculateMultipleRoutesAsync(patientLat, patientLon, destinations);
+    }
+
+    private CompletableFuture<Map<Integer, Integer>> findWaitingCounts(List<BranchWithDoctors> branches) {
+        List<Integer> branchIds = new ArrayList<>(branches.size());
+        for (BranchWithDoctors branch : branches) {
+            branchIds.add(branch.getBranch().getBranchId());
+        }
+        if (branchIds.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+        try {
+            return CompletableFuture.supplyAsync(
+                () -> queueDAO.countTodaysByBranchAndStatus(branchIds, QueueStatus.WAITING), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static void awaitUntil(List<CompletableFuture<?>> lookups, long deadline) {
         try {
-            LocalDateTime startWindow = dateTime.minusMinutes(30);
-            LocalDateTime endWindow = dateTime.plusMinutes(30);
-            
-            List<Appointment> appointments = appointmentDAO.findByDoctorAndDateRange(
-                doctorId, startWindow, endWindow
-            );
-            
-            return !appointments.isEmpty();
-        } catch (Exception e) {
-            return false;
+            CompletableFuture.allOf(lookups.toArray(new CompletableFuture<?>[0]))
+                .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("[EnhancedBranchSearch] Lookup failed: " + JsonHttpClient.unwrap(e).getMessage());
+        } catch (TimeoutException e) {
+            System.err.println("[EnhancedBranchSearch] Search deadline reached, returning partial results");
         }
     }
 
+    /**
+     * The lookup's value if it completed normally, otherwise null; an unfinished lookup is cancelled.
+     */
+    private static <T> T completedOrNull(CompletableFuture<T> lookup) {
+        if (lookup.isDone() && !lookup.isCompletedExceptionally()) {
+            return lookup.join();
+        }
+        lookup.cancel(true);
+        return null;
+    }
+
     private boolean checkIfDoctorAvailableAtTime(Doctor doctor, LocalDateTime dateTime) {
         if (dateTime == null) {
             return true;
@@ -174,4 +364,18 @@ public class EnhancedBranchSearchService {
 
         return AvailabilityParser.isAvailableAt(availabilityJson, dateTime);
     }
+
+    private static final class ScoredBranch {
+        private final BranchWithDoctors branch;
+        private final double score;
+        private final int greenCount;
+        private final int order;
+
+        private ScoredBranch(BranchWithDoctors branch, double score, int greenCount, int order) {
+            this.branch = branch;
+            this.score = score;
+            this.greenCount = greenCount;
+            this.order = order;
+        }
+    }
 }
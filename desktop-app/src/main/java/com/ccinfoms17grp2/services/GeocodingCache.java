@@ -0,0 +1,402 @@
+package com.ccinfoms17grp2.services;
+
+import com.ccinfoms17grp2.services.GeocodingService.GeocodingResult;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-tier cache of Nominatim answers keyed by normalized query text and result limit.
+ * <p>
+ * The first tier is a bounded LRU map in memory. The second is one small JSON file per key under a local
+ * directory, so answers survive restarts. Empty answers are cached in memory only, with a shorter TTL, so
+ * repeated typos do not reach the server. Expired entries stay on disk and are offered through
+ * {@link Lookup#getStale} when the server cannot be reached.
+ * <p>
+ * All file I/O runs on the cache's own thread, so lookups from the FX thread never wait on the disk. At
+ * startup, and again after every eighth of {@code maxDiskEntries} writes, that thread sweeps the directory:
+ * it deletes unreadable files and empty answers left by older versions, then deletes the least recently used
+ * files beyond {@code maxDiskEntries}. Disk errors are logged and otherwise ignored; the cache never fails a
+ * lookup.
+ */
+public class GeocodingCache {
+
+    public static final Duration DEFAULT_POSITIVE_TTL = Duration.ofDays(30);
+    public static final Duration DEFAULT_NEGATIVE_TTL = Duration.ofHours(6);
+    private static final int DEFAULT_MEMORY_ENTRIES = 512;
+    private static final int DEFAULT_DISK_ENTRIES = 4096;
+
+    private final Path directory;
+    private final int maxMemoryEntries;
+    private final int maxDiskEntries;
+    private final int writesPerSweep;
+    private final long positiveTtlMillis;
+    private final long negativeTtlMillis;
+    private final LinkedHashMap<String, CachedAnswer> memory;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final ExecutorService diskExecutor;
+    private int writesSinceSweep;
+
+    /**
+     * Cache stored under {@code ~/.ccinfom/geocoding-cache} with the default sizes and TTLs.
+     */
+    public GeocodingCache() {
+        this(Paths.get(System.getProperty("user.home"), ".ccinfom", "geocoding-cache"),
+            DEFAULT_MEMORY_ENTRIES, DEFAULT_DISK_ENTRIES, DEFAULT_POSITIVE_TTL, DEFAULT_NEGATIVE_TTL);
+    }
+
+    /**
+     * @param directory      Directory for the on-disk tier, or {@code null} to keep the cache in memory only
+     * @param maxDiskEntries Number of files the on-disk tier is trimmed back to when swept
+     */
+    public GeocodingCache(Path directory, int maxMemoryEntries, int maxDiskEntries,
+                          Duration positiveTtl, Duration negativeTtl) {
+        if (maxMemoryEntries <= 0) {
+            throw new IllegalArgumentException("maxMemoryEntries must be positive");
+        }
+        if (maxDiskEntries <= 0) {
+            throw new IllegalArgumentException("maxDiskEntries must be positive");
+        }
+        this.directory = directory;
+        this.maxMemoryEntries = maxMemoryEntries;
+        this.maxDiskEntries = maxDiskEntries;
+        this.writesPerSweep = Math.max(1, maxDiskEntries / 8);
+        this.positiveTtlMillis = positiveTtl.toMillis();
+        this.negativeTtlMillis = negativeTtl.toMillis();
+        this.memory = new LinkedHashMap<String, CachedAnswer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedAnswer> eldest) {
+                return size() > GeocodingCache.this.maxMemoryEntries;
+            }
+        };
+        if (directory == null) {
+            this.diskExecutor = null;
+        } else {
+            this.diskExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "geocoding-cache");
+                thread.setDaemon(true);
+                return thread;
+            });
+            diskExecutor.execute(this::sweepDisk);
+        }
+    }
+
+    /**
+     * Cache key for a query: trimmed, lower-cased, inner whitespace collapsed, plus the result limit.
+     */
+    public static String key(String query, int limit) {
+        String normalized = query.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        return normalized + "#" + limit;
+    }
+
+    /**
+     * What the cache holds for the key. An entry in memory completes the future at once; otherwise the on-disk
+     * tier is read on the cache's thread and the future completes there. Never completes exceptionally.
+     */
+    public CompletableFuture<Lookup> lookupAsync(String key) {
+        CachedAnswer entry;
+        synchronized (memory) {
+            entry = memory.get(key);
+        }
+        if (entry != null || diskExecutor == null) {
+            return CompletableFuture.completedFuture(new Lookup(entry, false));
+        }
+        CompletableFuture<Lookup> lookup = new CompletableFuture<>();
+        diskExecutor.execute(() -> {
+            CachedAnswer fromDisk = readFromDisk(key);
+            if (fromDisk != null) {
+                synchronized (memory) {
+                    memory.putIfAbsent(key, fromDisk);
+                }
+            }
+            lookup.complete(new Lookup(fromDisk, fromDisk != null));
+        });
+        return lookup;
+    }
+
+    /**
+     * Stores the answer in memory and, unless it is empty, writes it to disk on the cache's thread.
+     */
+    public void put(String key, List<GeocodingResult> results) {
+        long ttl = results.isEmpty() ? negativeTtlMillis : positiveTtlMillis;
+        CachedAnswer entry = new CachedAnswer(List.copyOf(results), System.currentTimeMillis() + ttl);
+        synchronized (memory) {
+            memory.put(key, entry);
+        }
+        if (diskExecutor != null && !entry.results.isEmpty()) {
+            diskExecutor.execute(() -> {
+                writeToDisk(key, entry);
+                if (++writesSinceSweep >= writesPerSweep) {
+                    sweepDisk();
+                }
+            });
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getNegativeHitCount() {
+        return negativeHits.get();
+    }
+
+    /**
+     * Fresh hits served from the on-disk tier after missing in memory. Included in {@link #getHitCount()}.
+     */
+    public long getDiskHitCount() {
+        return diskHits.get();
+    }
+
+    public long getStaleHitCount() {
+        return staleHits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GeocodingCache{hits=%d, negativeHits=%d, diskHits=%d, staleHits=%d, misses=%d, hitRate=%.2f}",
+            getHitCount(), getNegativeHitCount(), getDiskHitCount(), getStaleHitCount(), getMissCount(), getHitRate());
+    }
+
+    /**
+     * Runs on the cache's thread. Marks the file as recently used, so sweeps trim least recently used first.
+     */
+    private CachedAnswer readFromDisk(String key) {
+        Path file = directory.resolve(fileName(key));
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            JsonObject root = readFile(file);
+            if (!key.equals(root.get("key").getAsString())) {
+                return null;
+            }
+            CachedAnswer entry = parseAnswer(root);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return entry;
+        } catch (Exception e) {
+            System.err.println("[GeocodingCache] Ignoring unreadable cache file " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static JsonObject readFile(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(reader).getAsJsonObject();
+        }
+    }
+
+    private static CachedAnswer parseAnswer(JsonObject root) {
+        List<GeocodingResult> results = new ArrayList<>();
+        for (JsonElement element : root.getAsJsonArray("results")) {
+            JsonObject obj = element.getAsJsonObject();
+            results.add(new GeocodingResult(obj.get("lat").getAsDouble(), obj.get("lon").getAsDouble(),
+                obj.get("display_name").getAsString()));
+        }
+        return new CachedAnswer(List.copyOf(results), root.get("expires_at").getAsLong());
+    }
+
+    /**
+     * Runs on the cache's thread. Deletes leftover temp files, unreadable files and empty answers, then the
+     * least recently used files beyond {@link #maxDiskEntries}.
+     */
+    private void sweepDisk() {
+        writesSinceSweep = 0;
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> kept = new ArrayList<>();
+        Map<Path, FileTime> lastUsed = new LinkedHashMap<>();
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    deleted += deleteQuietly(file);
+                } else if (name.endsWith(".json")) {
+                    if (isKeptOnDisk(file)) {
+                        kept.add(file);
+                        lastUsed.put(file, Files.getLastModifiedTime(file));
+                    } else {
+                        deleted += deleteQuietly(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[GeocodingCache] Failed to sweep " + directory + ": " + e.getMessage());
+            return;
+        }
+        if (kept.size() > maxDiskEntries) {
+            kept.sort(Comparator.comparing(lastUsed::get));
+            for (Path file : kept.subList(0, kept.size() - maxDiskEntries)) {
+                deleted += deleteQuietly(file);
+            }
+        }
+        if (deleted > 0) {
+            System.out.println("[GeocodingCache] Swept " + deleted + " files, " + Math.min(kept.size(), maxDiskEntries) + " kept");
+        }
+    }
+
+    private static boolean isKeptOnDisk(Path file) {
+        try {
+            return !parseAnswer(readFile(file)).results.isEmpty();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static int deleteQuietly(Path file) {
+        try {
+            return Files.deleteIfExists(file) ? 1 : 0;
+        } catch (IOException e) {
+            System.err.println("[GeocodingCache] Failed to delete cache file " + file + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Runs on the cache's thread.
+     */
+    private void writeToDisk(String key, CachedAnswer entry) {
+        JsonArray results = new JsonArray();
+        for (GeocodingResult result : entry.results) {
+            JsonObject obj = new JsonObject();
+            obj.addProperty("lat", result.getLatitude());
+            obj.addProperty("lon", result.getLongitude());
+            obj.addProperty("display_name", result.getDisplayName());
+            results.add(obj);
+        }
+        JsonObject root = new JsonObject();
+        root.addProperty("key", key);
+        root.addProperty("expires_at", entry.expiresAt);
+        root.add("results", results);
+
+        Path file = directory.resolve(fileName(key));
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "entry", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(root.toString());
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("[GeocodingCache] Failed to write cache file " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static String fileName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(digest.length * 2 + 5);
+            for (byte b : digest) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return name.append(".json").toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * One cache lookup, for {@link #lookupAsync}. Hit and miss counts are recorded when {@link #getFresh} is called.
+     */
+    public final class Lookup {
+
+        private final CachedAnswer entry;
+        private final boolean fromDisk;
+
+        private Lookup(CachedAnswer entry, boolean fromDisk) {
+            this.entry = entry;
+            this.fromDisk = fromDisk;
+        }
+
+        /**
+         * Unexpired answer for the key. A present, empty list is a cached "no results".
+         */
+        public Optional<List<GeocodingResult>> getFresh() {
+            if (entry == null || entry.isExpired(System.currentTimeMillis())) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            hits.incrementAndGet();
+            if (fromDisk) {
+                diskHits.incrementAndGet();
+            }
+            if (entry.results.isEmpty()) {
+                negativeHits.incrementAndGet();
+            }
+            return Optional.of(entry.results);
+        }
+
+        /**
+         * Last non-empty answer for the key regardless of age, for use when the geocoding server is unreachable.
+         */
+        public Optional<List<GeocodingResult>> getStale() {
+            if (entry == null || entry.results.isEmpty()) {
+                return Optional.empty();
+            }
+            staleHits.incrementAndGet();
+            return Optional.of(entry.results);
+        }
+    }
+
+    private static final class CachedAnswer {
+
+        private final List<GeocodingResult> results;
+        private final long expiresAt;
+
+        private CachedAnswer(List<GeocodingResult> results, long expiresAt) {
+            this.results = results;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
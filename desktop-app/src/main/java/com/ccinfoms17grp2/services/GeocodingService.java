@@ -3,14 +3,16 @@ package com.ccinfoms17grp2.services;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service for geocoding addresses using local Nominatim instance.
@@ -18,7 +20,25 @@ import java.nio.charset.StandardCharsets;
 public class GeocodingService {
 
     private static final String NOMINATIM_BASE_URL = "http://localhost:8081";
-    private static final int TIMEOUT_MS = 5000;
+    private static final Duration TIMEOUT = Duration.ofMillis(5000);
+    private static final Duration PROBE_TIMEOUT = Duration.ofMillis(3000);
+    private static final int BREAKER_FAILURE_THRESHOLD = 3;
+    private static final Duration BREAKER_OPEN_DURATION = Duration.ofSeconds(15);
+
+    private final GeocodingCache cache;
+    private final OfflineGazetteer gazetteer;
+    private final JsonHttpClient http;
+    private final CircuitBreaker breaker = new CircuitBreaker("Nominatim", BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_DURATION);
+
+    public GeocodingService() {
+        this(new GeocodingCache(), OfflineGazetteer.loadDefault());
+    }
+
+    public GeocodingService(GeocodingCache cache, OfflineGazetteer gazetteer) {
+        this.cache = Objects.requireNonNull(cache);
+        this.gazetteer = Objects.requireNonNull(gazetteer);
+        this.http = JsonHttpClient.shared();
+    }
 
     /**
      * Represents a geocoded location result.
@@ -27,11 +47,17 @@ public class GeocodingService {
         private final double latitude;
         private final double longitude;
         private final String displayName;
+        private final boolean offline;
 
         public GeocodingResult(double latitude, double longitude, String displayName) {
+            this(latitude, longitude, displayName, false);
+        }
+
+        GeocodingResult(double latitude, double longitude, String displayName, boolean offline) {
             this.latitude = latitude;
             this.longitude = longitude;
             this.displayName = displayName;
+            this.offline = offline;
         }
 
         public double getLatitude() {
@@ -46,6 +72,21 @@ public class GeocodingService {
             return displayName;
         }
 
+        /**
+         * Whether this result came from the {@link OfflineGazetteer} rather than Nominatim.
+         */
+        public boolean isOffline() {
+            return offline;
+        }
+
+        /**
+         * Whether every word of the query starts a word of the display name, as {@link OfflineGazetteer}
+         * matches. Used to narrow an earlier, shorter query's offline results to a longer one.
+         */
+        public boolean matches(String query) {
+            return OfflineGazetteer.matches(displayName, query);
+        }
+
         @Override
         public String toString() {
             return String.format("GeocodingResult{lat=%.6f, lon=%.6f, name='%s'}", latitude, longitude, displayName);
@@ -60,85 +101,135 @@ public class GeocodingService {
      * @throws Exception if geocoding fails
      */
     public GeocodingResult geocodeAddress(String address) throws Exception {
+        return JsonHttpClient.await(geocodeAddressAsync(address));
+    }
+
+    /**
+     * Non-blocking form of {@link #geocodeAddress(String)}; completes with null if nothing was found.
+     */
+    public CompletableFuture<GeocodingResult> geocodeAddressAsync(String address) {
         if (address == null || address.trim().isEmpty()) {
             throw new IllegalArgumentException("Address cannot be empty");
         }
 
-        String encodedAddress = URLEncoder.encode(address, StandardCharsets.UTF_8.toString());
-        String urlString = NOMINATIM_BASE_URL + "/search?q=" + encodedAddress + "&format=json&limit=1";
-
-        URL url = new URL(urlString);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setConnectTimeout(TIMEOUT_MS);
-        conn.setReadTimeout(TIMEOUT_MS);
-        conn.setRequestProperty("User-Agent", "CCInfoMSHealthcareApp/1.0");
-        conn.setRequestProperty("Accept", "application/json");
-        conn.setRequestProperty("Connection", "close");
-
-        try {
-            int responseCode = conn.getResponseCode();
-            if (responseCode != 200) {
-                throw new Exception("Geocoding service returned status code: " + responseCode);
-            }
-
-            BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
-            }
-            reader.close();
-
-            JsonArray results = JsonParser.parseString(response.toString()).getAsJsonArray();
-            if (results.size() == 0) {
-                return null; // No results found
-            }
-
-            JsonObject firstResult = results.get(0).getAsJsonObject();
-            double lat = firstResult.get("lat").getAsDouble();
-            double lon = firstResult.get("lon").getAsDouble();
-            String displayName = firstResult.get("display_name").getAsString();
+        CompletableFuture<List<GeocodingResult>> search = cachedSearchAsync(address, 1, "Geocoding service");
+        return JsonHttpClient.cancelling(search.thenApply(results -> results.isEmpty() ? null : results.get(0)), search);
+    }
 
-            return new GeocodingResult(lat, lon, displayName);
-        } finally {
-            conn.disconnect();
-        }
+    public List<GeocodingResult> searchAddresses(String query, int limit) throws Exception {
+        return JsonHttpClient.await(searchAddressesAsync(query, limit));
     }
 
-    public java.util.List<GeocodingResult> searchAddresses(String query, int limit) throws Exception {
+    public CompletableFuture<List<GeocodingResult>> searchAddressesAsync(String query, int limit) {
         if (query == null || query.trim().isEmpty()) {
             throw new IllegalArgumentException("Query cannot be empty");
         }
 
-        String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8.toString());
-        String urlString = NOMINATIM_BASE_URL + "/search?q=" + encodedQuery + "&format=json&limit=" + limit;
-
-        URL url = new URL(urlString);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setConnectTimeout(TIMEOUT_MS);
-        conn.setReadTimeout(TIMEOUT_MS);
-        conn.setRequestProperty("User-Agent", "CCInfoMSHealthcareApp/1.0");
-        conn.setRequestProperty("Accept", "application/json");
-        conn.setRequestProperty("Connection", "close");
-
-        try {
-            int responseCode = conn.getResponseCode();
-            if (responseCode != 200) {
-                throw new Exception("Search service returned status code: " + responseCode);
+        return cachedSearchAsync(query, limit, "Search service");
+    }
+
+    public GeocodingCache getCache() {
+        return cache;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    /**
+     * Check if the Nominatim service is reachable. Answers from the circuit breaker's cached health state,
+     * so it never blocks; the state is kept current by {@link #startHealthProbe} and by real requests.
+     *
+     * @return true if service is available, false otherwise
+     */
+    public boolean isServiceAvailable() {
+        return breaker.isAvailable();
+    }
+
+    /**
+     * Request Nominatim's {@code /status} page, bypassing the circuit breaker.
+     *
+     * @return Future completing with whether Nominatim answered 200
+     */
+    public CompletableFuture<Boolean> probeAsync() {
+        URI uri = URI.create(NOMINATIM_BASE_URL + "/status");
+        return http.statusAsync(uri, PROBE_TIMEOUT).handle((responseCode, error) -> {
+            boolean available = error == null && responseCode == 200;
+            // Only the probe that takes the service down is logged; sites without Nominatim would otherwise
+            // get this line every interval. The breaker logs the recovery.
+            if (!available && breaker.isAvailable()) {
+                System.err.println("[GeocodingService] Nominatim health probe failed: "
+                    + (error != null ? JsonHttpClient.unwrap(error) : "status " + responseCode));
             }
+            return available;
+        });
+    }
+
+    public void startHealthProbe(Duration interval) {
+        breaker.startHealthProbe(this::probeAsync, interval);
+    }
 
-            BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
+    public void stopHealthProbe() {
+        breaker.close();
+    }
+
+    /**
+     * Answer from the cache when fresh, otherwise from Nominatim. If Nominatim fails, an expired cached
+     * answer is returned instead of the error when one exists. Safe to call on the FX thread: a cache entry in
+     * memory answers at once, and the on-disk tier is read on the cache's own thread.
+     */
+    private CompletableFuture<List<GeocodingResult>> cachedSearchAsync(String query, int limit, String serviceName) {
+        String key = GeocodingCache.key(query, limit);
+        CompletableFuture<List<GeocodingResult>> result = new CompletableFuture<>();
+        cache.lookupAsync(key).thenAccept(cached -> {
+            Optional<List<GeocodingResult>> fresh = cached.getFresh();
+            if (fresh.isPresent()) {
+                result.complete(fresh.get());
+                return;
             }
-            reader.close();
+            if (result.isDone()) {
+                // Cancelled while the disk tier was read.
+                return;
+            }
+            CompletableFuture<List<GeocodingResult>> fetch = fetchFromNominatim(query, limit, serviceName);
+            JsonHttpClient.cancelling(result, fetch);
+            fetch.whenComplete((results, error) -> {
+                if (error == null) {
+                    cache.put(key, results);
+                    result.complete(results);
+                    return;
+                }
+                if (result.isCancelled()) {
+                    return;
+                }
+                Throwable cause = JsonHttpClient.unwrap(error);
+                Optional<List<GeocodingResult>> stale = cached.getStale();
+                if (stale.isPresent()) {
+                    System.err.println("[GeocodingService] " + serviceName + " failed, serving cached results for '" + query + "': " + cause.getMessage());
+                    result.complete(stale.get());
+                    return;
+                }
+                // Not cached: an offline answer must not hide Nominatim's once it is back.
+                List<GeocodingResult> offline = gazetteer.search(query, limit);
+                if (!offline.isEmpty()) {
+                    System.err.println("[GeocodingService] " + serviceName + " failed, serving offline gazetteer results for '" + query + "': " + cause.getMessage());
+                    result.complete(offline);
+                    return;
+                }
+                result.completeExceptionally(cause);
+            });
+        });
+        return result;
+    }
 
-            JsonArray results = JsonParser.parseString(response.toString()).getAsJsonArray();
-            java.util.List<GeocodingResult> list = new java.util.ArrayList<>();
+    private CompletableFuture<List<GeocodingResult>> fetchFromNominatim(String query, int limit, String serviceName) {
+        String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
+        URI uri = URI.create(NOMINATIM_BASE_URL + "/search?q=" + encodedQuery + "&format=json&limit=" + limit);
+
+        CompletableFuture<JsonElement> request = breaker.call(() -> http.getJsonAsync(uri, TIMEOUT, serviceName));
+        return JsonHttpClient.cancelling(request.thenApply(json -> {
+            JsonArray results = json.getAsJsonArray();
+            List<GeocodingResult> list = new ArrayList<>();
             
             for (JsonElement element : results) {
                 JsonObject obj = element.getAsJsonObject();
@@ -149,39 +240,6 @@ public class GeocodingService {
             }
             
             return list;
-        } finally {
-            conn.disconnect();
-        }
-    }
-
-    /**
-     * Check if the Nominatim service is reachable.
-     *
-     * @return true if service is available, false otherwise
-     */
-    public boolean isServiceAvailable() {
-        HttpURLConnection conn = null;
-        try {
-            URL url = new URL(NOMINATIM_BASE_URL + "/search?q=test&limit=1");
-            conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(3000);
-            conn.setReadTimeout(3000);
-            conn.setRequestProperty("User-Agent", "CCInfoMSHealthcareApp/1.0");
-            conn.setRequestProperty("Accept", "application/json");
-            conn.setRequestProperty("Connection", "close");
-            
-            int responseCode = conn.getResponseCode();
-            boolean available = responseCode == 200;
-            System.out.println("[GeocodingService] Nominatim availability check: URL=" + url + ", responseCode=" + responseCode + ", available=" + available);
-            return available;
-        } catch (Exception e) {
-            System.out.println("[GeocodingService] Nominatim availability check failed: " + e.getClass().getSimpleName() + " - " + e.getMessage());
-            return false;
-        } finally {
-            if (conn != null) {
-                conn.disconnect();
-            }
-        }
+        }), request);
     }
 }
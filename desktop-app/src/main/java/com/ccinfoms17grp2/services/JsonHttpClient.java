@@ -0,0 +1,285 @@
+package com.ccinfoms17grp2.services;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * One HTTP/1.1 client shared by the Nominatim and ORS services.
+ * <p>
+ * The underlying {@link HttpClient} keeps connections alive and reuses them across requests, so only the
+ * first call to a host pays for TCP setup. Requests to the same host:port are limited to
+ * {@link #MAX_CONCURRENT_REQUESTS_PER_HOST} in flight; further requests wait in a FIFO queue without blocking
+ * a thread. Response bodies are parsed as they stream in rather than being collected into a string first.
+ * <p>
+ * Cancelling a returned future abandons the request but does not stop it: on Java 11 cancelling the future
+ * from {@link HttpClient#sendAsync} leaves the exchange running. An abandoned request therefore keeps its host
+ * slot until the response has arrived, and its body is drained unparsed so the connection can be reused.
+ */
+public final class JsonHttpClient {
+
+    public static final int MAX_CONCURRENT_REQUESTS_PER_HOST = 4;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final String USER_AGENT = "CCInfoMSHealthcareApp/1.0";
+
+    private static final JsonHttpClient SHARED = new JsonHttpClient();
+
+    private final ExecutorService executor;
+    private final HttpClient client;
+    private final Map<String, HostLimiter> limiters = new ConcurrentHashMap<>();
+
+    private JsonHttpClient() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "http-client-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .executor(executor)
+            .build();
+    }
+
+    public static JsonHttpClient shared() {
+        return SHARED;
+    }
+
+    /**
+     * A response other than 200 OK. The message names the service and the status code.
+     */
+    public static class HttpStatusException extends IOException {
+        private final int statusCode;
+
+        public HttpStatusException(String serviceName, int statusCode) {
+            super(serviceName + " returned status code: " + statusCode);
+            this.statusCode = statusCode;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * True for a 4xx answer about the request itself, such as a 404 for a point ORS cannot route to. Timeouts
+         * (408) and rate limiting (429) are excluded, since they say the service is struggling.
+         */
+        public boolean isClientError() {
+            return statusCode >= 400 && statusCode < 500 && statusCode != 408 && statusCode != 429;
+        }
+    }
+
+    /**
+     * GET a JSON document.
+     *
+     * @param serviceName Used in the error message for non-200 responses, which fail with
+     *                    {@link HttpStatusException}
+     */
+    public CompletableFuture<JsonElement> getJsonAsync(URI uri, Duration timeout, String serviceName) {
+        HttpRequest request = newRequest(uri, timeout).GET().build();
+        return sendForJson(request, serviceName);
+    }
+
+    /**
+     * POST a JSON body and read a JSON document back.
+     *
+     * @param serviceName Used in the error message for non-200 responses, which fail with
+     *                    {@link HttpStatusException}
+     */
+    public CompletableFuture<JsonElement> postJsonAsync(URI uri, String body, Duration timeout, String serviceName) {
+        HttpRequest request = newRequest(uri, timeout)
+            .header("Content-Type", "application/json; charset=utf-8")
+            .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+            .build();
+        return sendForJson(request, serviceName);
+    }
+
+    /**
+     * GET a URL and return only the status code, discarding the body.
+     */
+    public CompletableFuture<Integer> statusAsync(URI uri, Duration timeout) {
+        HttpRequest request = newRequest(uri, timeout).GET().build();
+        return limited(uri, abandoned -> client.sendAsync(request, HttpResponse.BodyHandlers.discarding()))
+            .thenApply(HttpResponse::statusCode);
+    }
+
+    /**
+     * Wait for a future from this client, rethrowing its failure as the original exception.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw ex;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns {@code derived}, arranged so that cancelling it also cancels {@code source}. Use on futures built
+     * with {@code thenApply}/{@code handle} over a request so callers can still abandon the request itself.
+     */
+    public static <T> CompletableFuture<T> cancelling(CompletableFuture<T> derived, CompletableFuture<?> source) {
+        derived.whenComplete((value, error) -> {
+            if (derived.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return derived;
+    }
+
+    /**
+     * True if {@code error} is, or wraps, an {@link HttpStatusException} for a client error.
+     */
+    public static boolean isClientError(Throwable error) {
+        Throwable cause = unwrap(error);
+        return cause instanceof HttpStatusException && ((HttpStatusException) cause).isClientError();
+    }
+
+    /**
+     * The failure carried by a {@link CompletionException}, or the throwable itself.
+     */
+    public static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    private HttpRequest.Builder newRequest(URI uri, Duration timeout) {
+        return HttpRequest.newBuilder(uri)
+            .timeout(timeout)
+            .header("User-Agent", USER_AGENT)
+            .header("Accept", "application/json");
+    }
+
+    private CompletableFuture<JsonElement> sendForJson(HttpRequest request, String serviceName) {
+        // Reading the body happens inside the limited call so a host slot is held until it has been consumed.
+        return limited(request.uri(), abandoned -> client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+            .thenApplyAsync(response -> abandoned.getAsBoolean() ? drain(response) : parseJson(response, serviceName), executor));
+    }
+
+    private static JsonElement parseJson(HttpResponse<InputStream> response, String serviceName) {
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                body.transferTo(OutputStream.nullOutputStream());
+                throw new CompletionException(new HttpStatusException(serviceName, response.statusCode()));
+            }
+            Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+            JsonElement json = JsonParser.parseReader(reader);
+            // Closing a body before its end closes the connection instead of returning it to the pool.
+            body.transferTo(OutputStream.nullOutputStream());
+            return json;
+        } catch (IOException ex) {
+            throw new CompletionException(ex);
+        }
+    }
+
+    private static JsonElement drain(HttpResponse<InputStream> response) {
+        try (InputStream body = response.body()) {
+            body.transferTo(OutputStream.nullOutputStream());
+            return null;
+        } catch (IOException ex) {
+            throw new CompletionException(ex);
+        }
+    }
+
+    /**
+     * @param call Starts the request once a slot is free. Its argument tells whether the caller has cancelled
+     *             meanwhile; the returned future must not complete before the exchange has finished.
+     */
+    private <T> CompletableFuture<T> limited(URI uri, Function<BooleanSupplier, CompletableFuture<T>> call) {
+        String host = uri.getHost() + ":" + uri.getPort();
+        return limiters.computeIfAbsent(host, key -> new HostLimiter()).submit(call);
+    }
+
+    /**
+     * FIFO admission for one host. Completion of a request starts the next queued one. A request cancelled
+     * while queued is never sent; one cancelled in flight keeps its slot until its exchange finishes.
+     */
+    private static final class HostLimiter {
+
+        private final Queue<Runnable> waiting = new ArrayDeque<>();
+        private int running;
+
+        private <T> CompletableFuture<T> submit(Function<BooleanSupplier, CompletableFuture<T>> call) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            Runnable start = () -> {
+                if (result.isDone()) {
+                    release();
+                    return;
+                }
+                CompletableFuture<T> inFlight;
+                try {
+                    inFlight = call.apply(result::isCancelled);
+                } catch (RuntimeException ex) {
+                    inFlight = CompletableFuture.failedFuture(ex);
+                }
+                inFlight.whenComplete((value, error) -> {
+                    release();
+                    if (error != null) {
+                        result.completeExceptionally(unwrap(error));
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            };
+            boolean startNow;
+            synchronized (this) {
+                startNow = running < MAX_CONCURRENT_REQUESTS_PER_HOST;
+                if (startNow) {
+                    running++;
+                } else {
+                    waiting.add(start);
+                }
+            }
+            if (startNow) {
+                start.run();
+            }
+            return result;
+        }
+
+        private void release() {
+            Runnable next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    running--;
+                }
+            }
+            if (next != null) {
+                next.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.ccinfoms17grp2.services;
+
+import com.ccinfoms17grp2.dao.DaoException;
+import com.ccinfoms17grp2.dao.UserDAO;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for users' last-login timestamps.
+ * <p>
+ * Logins only record the time in memory; {@link #flush()} writes everything recorded since the last flush
+ * with one batched UPDATE. Repeated logins by the same user before a flush collapse into one row. Flushing
+ * runs periodically once {@link #startAutoFlush} is called and once more on {@link #close()}, so at most one
+ * interval of timestamps is lost if the process is killed.
+ */
+public class LastLoginRecorder implements AutoCloseable {
+
+    private final UserDAO userDAO;
+    private final ConcurrentHashMap<Integer, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    public LastLoginRecorder(UserDAO userDAO) {
+        this.userDAO = Objects.requireNonNull(userDAO, "UserDAO is required");
+    }
+
+    public void record(int userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, LastLoginRecorder::later);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Writes the pending timestamps. On failure they are put back, unless a newer login was recorded meanwhile,
+     * and retried on the next flush.
+     *
+     * @return number of users updated
+     */
+    public int flush() throws DaoException {
+        Map<Integer, LocalDateTime> batch = new HashMap<>();
+        for (Integer userId : pending.keySet()) {
+            LocalDateTime loginTime = pending.remove(userId);
+            if (loginTime != null) {
+                batch.put(userId, loginTime);
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            return userDAO.updateLastLogins(batch);
+        } catch (DaoException ex) {
+            batch.forEach((userId, loginTime) -> pending.merge(userId, loginTime, LastLoginRecorder::later));
+            throw ex;
+        }
+    }
+
+    public synchronized void startAutoFlush(Duration interval) {
+        if (flusher != null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "last-login-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic flush and writes whatever is still pending.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (flusher != null) {
+                flusher.shutdownNow();
+                flusher = null;
+            }
+        }
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            System.err.println("[LastLoginRecorder] Failed to write last login times, will retry: " + ex.getMessage());
+        }
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
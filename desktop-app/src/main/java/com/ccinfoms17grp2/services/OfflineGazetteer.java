@@ -0,0 +1,195 @@
+package com.ccinfoms17grp2.services;
+
+import com.ccinfoms17grp2.services.GeocodingService.GeocodingResult;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-process geocoder over a small list of Philippine place names, for sites without a Nominatim server.
+ * <p>
+ * Names are split into accent-free, lower-case words. Every distinct word is kept in one sorted array with
+ * the IDs of the places containing it, so each query word is a prefix range found by binary search. A place
+ * matches when every query word is a prefix of one of its words; e.g. "que cit" finds "Quezon City".
+ * Matches are ranked by how many query words matched whole words, then by how short the place name is.
+ * <p>
+ * The bundled list ({@code ph-gazetteer.tsv}) holds the seeded branch addresses and the main city centres.
+ */
+public final class OfflineGazetteer {
+
+    private static final String DEFAULT_RESOURCE = "ph-gazetteer.tsv";
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^a-z0-9]+");
+
+    private final GeocodingResult[] places;
+    private final int[] wordCounts;
+    private final String[] words;
+    private final int[][] postings;
+
+    private OfflineGazetteer(List<GeocodingResult> places) {
+        this.places = places.toArray(new GeocodingResult[0]);
+        this.wordCounts = new int[this.places.length];
+        Map<String, BitSet> index = new TreeMap<>();
+        for (int id = 0; id < this.places.length; id++) {
+            String[] placeWords = tokenize(this.places[id].getDisplayName());
+            wordCounts[id] = placeWords.length;
+            for (String word : placeWords) {
+                index.computeIfAbsent(word, key -> new BitSet()).set(id);
+            }
+        }
+        this.words = index.keySet().toArray(new String[0]);
+        this.postings = new int[words.length][];
+        int i = 0;
+        for (BitSet ids : index.values()) {
+            postings[i++] = ids.stream().toArray();
+        }
+    }
+
+    /**
+     * Loads the gazetteer bundled with the application. An unreadable resource yields an empty gazetteer.
+     */
+    public static OfflineGazetteer loadDefault() {
+        try (InputStream in = OfflineGazetteer.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                System.err.println("[OfflineGazetteer] " + DEFAULT_RESOURCE + " not found; offline geocoding disabled");
+                return new OfflineGazetteer(List.of());
+            }
+            return load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("[OfflineGazetteer] Failed to load " + DEFAULT_RESOURCE + ": " + e.getMessage());
+            return new OfflineGazetteer(List.of());
+        }
+    }
+
+    /**
+     * Reads tab-separated {@code name, latitude, longitude} lines. Blank lines and lines starting with
+     * {@code #} are skipped, as are malformed lines.
+     */
+    public static OfflineGazetteer load(Reader source) throws IOException {
+        List<GeocodingResult> places = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split("\t");
+            if (columns.length < 3) {
+                continue;
+            }
+            try {
+                places.add(new GeocodingResult(Double.parseDouble(columns[1].trim()),
+                    Double.parseDouble(columns[2].trim()), columns[0].trim(), true));
+            } catch (NumberFormatException e) {
+                System.err.println("[OfflineGazetteer] Skipping malformed line: " + line);
+            }
+        }
+        return new OfflineGazetteer(places);
+    }
+
+    public int size() {
+        return places.length;
+    }
+
+    /**
+     * Places matching every word of the query, best first.
+     */
+    public List<GeocodingResult> search(String query, int limit) {
+        String[] queryWords = tokenize(query);
+        if (queryWords.length == 0 || places.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        BitSet matches = null;
+        int[] wholeWordHits = new int[places.length];
+        for (String queryWord : queryWords) {
+            BitSet wordMatches = new BitSet(places.length);
+            int from = lowerBound(queryWord);
+            for (int i = from; i < words.length && words[i].startsWith(queryWord); i++) {
+                boolean whole = words[i].length() == queryWord.length();
+                for (int id : postings[i]) {
+                    wordMatches.set(id);
+                    if (whole) {
+                        wholeWordHits[id]++;
+                    }
+                }
+            }
+            if (matches == null) {
+                matches = wordMatches;
+            } else {
+                matches.and(wordMatches);
+            }
+            if (matches.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        Integer[] ids = matches.stream().boxed().toArray(Integer[]::new);
+        Arrays.sort(ids, Comparator.<Integer>comparingInt(id -> -wholeWordHits[id])
+            .thenComparingInt(id -> wordCounts[id])
+            .thenComparingInt(id -> id));
+        List<GeocodingResult> results = new ArrayList<>(Math.min(limit, ids.length));
+        for (int i = 0; i < ids.length && i < limit; i++) {
+            results.add(places[ids[i]]);
+        }
+        return results;
+    }
+
+    /**
+     * Whether every word of the query is a prefix of some word of the name, i.e. whether {@link #search}
+     * would count the name as a match.
+     */
+    static boolean matches(String name, String query) {
+        String[] nameWords = tokenize(name);
+        for (String queryWord : tokenize(query)) {
+            boolean found = false;
+            for (String nameWord : nameWords) {
+                if (nameWord.startsWith(queryWord)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = words.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (words[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        String normalized = NON_WORD.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+}
@@ -0,0 +1,68 @@
+package com.ccinfoms17grp2.services;
+
+import com.ccinfoms17grp2.dao.QueueDAO;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out per-branch, per-day queue numbers from the database counter.
+ * <p>
+ * With a block size of 1 every ticket costs one counter update. Larger blocks reserve that many numbers at
+ * once and serve them from memory. That saves round trips on busy kiosks, but numbers from different clients
+ * interleave, and a block left unused at shutdown or midnight leaves a gap.
+ * <p>
+ * Counters are keyed by the database server's date. This client's date only decides when a block is too old
+ * to serve, so with blocks larger than 1 the two clocks should agree on when midnight falls.
+ */
+public class QueueNumberAllocator {
+
+    private final QueueDAO queueDAO;
+    private final int blockSize;
+    private final Map<Integer, Block> blocks = new ConcurrentHashMap<>();
+
+    public QueueNumberAllocator(QueueDAO queueDAO, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1");
+        }
+        this.queueDAO = Objects.requireNonNull(queueDAO);
+        this.blockSize = blockSize;
+    }
+
+    public int nextNumber(int branchId) {
+        LocalDate today = LocalDate.now();
+        Block block = blocks.computeIfAbsent(branchId, id -> new Block());
+        synchronized (block) {
+            if (!today.equals(block.date) || block.next > block.last) {
+                int last = queueDAO.reserveQueueNumbers(branchId, blockSize);
+                block.date = today;
+                block.next = last - blockSize + 1;
+                block.last = last;
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Number the next ticket for this branch will most likely get, without reserving it.
+     */
+    public int peekNumber(int branchId) {
+        Block block = blocks.get(branchId);
+        if (block != null) {
+            synchronized (block) {
+                if (LocalDate.now().equals(block.date) && block.next <= block.last) {
+                    return block.next;
+                }
+            }
+        }
+        return queueDAO.getNextQueueNumber(branchId);
+    }
+
+    private static final class Block {
+        private LocalDate date;
+        private int next;
+        private int last;
+    }
+}
@@ -11,9 +11,15 @@ import java.util.Optional;
 public class QueueService {
 
     private final QueueDAO queueDAO;
+    private final QueueNumberAllocator numberAllocator;
 
     public QueueService(QueueDAO queueDAO) {
+        this(queueDAO, new QueueNumberAllocator(queueDAO, 1));
+    }
+
+    public QueueService(QueueDAO queueDAO, QueueNumberAllocator numberAllocator) {
         this.queueDAO = Objects.requireNonNull(queueDAO);
+        this.numberAllocator = Objects.requireNonNull(numberAllocator);
     }
 
     public List<Queue> listQueues() {
@@ -54,8 +60,7 @@ public class QueueService {
     public Queue createQueue(Queue queue) {
         validate(queue, false);
         if (queue.getQueueNumber() <= 0) {
-            int nextNumber = queueDAO.getNextQueueNumber(queue.getBranchId());
-            queue.setQueueNumber(nextNumber);
+            queue.setQueueNumber(numberAllocator.nextNumber(queue.getBranchId()));
         }
         return queueDAO.create(queue);
     }
@@ -80,31 +85,36 @@ public class QueueService {
         }
     }
 
-    public Queue updateQueueStatus(int queueId, QueueStatus newStatus) {
+    /**
+     * Moves a queue entry from the status the caller last saw to {@code newStatus} in one round trip.
+     * Fails if another desk changed the entry first.
+     */
+    public void updateQueueStatus(int queueId, QueueStatus expectedStatus, QueueStatus newStatus) {
         if (queueId <= 0) {
             throw new ValidationException("Queue ID is invalid.");
         }
-        if (newStatus == null) {
+        if (expectedStatus == null || newStatus == null) {
             throw new ValidationException("Queue status is required.");
         }
-        Optional<Queue> optQueue = queueDAO.findById(queueId);
-        if (!optQueue.isPresent()) {
-            throw new ValidationException("Queue not found with ID: " + queueId);
+        if (expectedStatus == newStatus) {
+            throw new ValidationException("Queue is already " + newStatus + ".");
         }
-        Queue queue = optQueue.get();
-        queue.setStatus(newStatus);
-        boolean updated = queueDAO.update(queue);
-        if (!updated) {
-            throw new ValidationException("Failed to update queue status.");
+        if (!queueDAO.transitionStatus(queueId, expectedStatus, newStatus)) {
+            // Only the losing path pays for a second query, to explain why.
+            Optional<Queue> current = queueDAO.findById(queueId);
+            if (current.isEmpty()) {
+                throw new ValidationException("Queue not found with ID: " + queueId);
+            }
+            throw new ValidationException("Queue #" + queueId + " is now " + current.get().getStatus()
+                    + ". It may have been updated by another user.");
         }
-        return queueDAO.findById(queueId).orElse(queue);
     }
 
     public int getNextQueueNumber(int branchId) {
         if (branchId <= 0) {
             throw new ValidationException("Branch ID is invalid.");
         }
-        return queueDAO.getNextQueueNumber(branchId);
+        return numberAllocator.peekNumber(branchId);
     }
     
     public List<Queue> listTodaysQueueByBranch(int branchId) {
@@ -0,0 +1,167 @@
+package com.ccinfoms17grp2.services;
+
+import com.ccinfoms17grp2.dao.BranchDAO;
+import com.ccinfoms17grp2.dao.SpecializationDAO;
+import com.ccinfoms17grp2.models.Branch;
+import com.ccinfoms17grp2.models.Specialization;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory copy of the small, rarely changing reference tables: branches and specializations.
+ * <p>
+ * Both tables are held in one immutable {@link Snapshot} behind a volatile field. Readers take the current
+ * snapshot without locking or touching MySQL. Writers build a replacement and publish it with a single
+ * assignment. The first read loads the data; after that it is refreshed by the owning services after each
+ * write and, if {@link #startAutoRefresh} was called, periodically to pick up changes from other clients.
+ * <p>
+ * The returned {@link Branch} and {@link Specialization} objects are shared between readers and must be
+ * treated as read-only.
+ */
+public class ReferenceDataRegistry implements AutoCloseable {
+
+    private final BranchDAO branchDAO;
+    private final SpecializationDAO specializationDAO;
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot;
+    private ScheduledExecutorService refresher;
+
+    public ReferenceDataRegistry(BranchDAO branchDAO, SpecializationDAO specializationDAO) {
+        this.branchDAO = Objects.requireNonNull(branchDAO);
+        this.specializationDAO = Objects.requireNonNull(specializationDAO);
+    }
+
+    /**
+     * Branches in the order {@link BranchDAO#findAll()} returns them.
+     */
+    public List<Branch> getBranches() {
+        return snapshot().branches;
+    }
+
+    public Optional<Branch> findBranch(int branchId) {
+        return Optional.ofNullable(snapshot().branchesById.get(branchId));
+    }
+
+    /**
+     * Spatial index over the current branches, rebuilt whenever the branches are refreshed.
+     */
+    public BranchSpatialIndex getBranchIndex() {
+        return snapshot().branchIndex;
+    }
+
+    /**
+     * Specializations in the order {@link SpecializationDAO#findAll()} returns them.
+     */
+    public List<Specialization> getSpecializations() {
+        return snapshot().specializations;
+    }
+
+    public Optional<Specialization> findSpecialization(int specializationId) {
+        return Optional.ofNullable(snapshot().specializationsById.get(specializationId));
+    }
+
+    public void refresh() {
+        synchronized (writeLock) {
+            snapshot = new Snapshot(branchDAO.findAll(), specializationDAO.findAll());
+        }
+    }
+
+    public void refreshBranches() {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            snapshot = current == null
+                ? new Snapshot(branchDAO.findAll(), specializationDAO.findAll())
+                : new Snapshot(branchDAO.findAll(), current.specializations);
+        }
+    }
+
+    public void refreshSpecializations() {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            snapshot = current == null
+                ? new Snapshot(branchDAO.findAll(), specializationDAO.findAll())
+                : new Snapshot(current.branches, current.branchIndex, specializationDAO.findAll());
+        }
+    }
+
+    /**
+     * Reloads both tables every {@code interval} on a daemon thread. A failed reload keeps the previous snapshot.
+     */
+    public synchronized void startAutoRefresh(Duration interval) {
+        if (refresher != null) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reference-data-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        refresher.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException ex) {
+                System.err.println("[ReferenceDataRegistry] Refresh failed, keeping previous snapshot: " + ex.getMessage());
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (writeLock) {
+                current = snapshot;
+                if (current == null) {
+                    current = new Snapshot(branchDAO.findAll(), specializationDAO.findAll());
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static final class Snapshot {
+
+        private final List<Branch> branches;
+        private final Map<Integer, Branch> branchesById;
+        private final BranchSpatialIndex branchIndex;
+        private final List<Specialization> specializations;
+        private final Map<Integer, Specialization> specializationsById;
+
+        private Snapshot(List<Branch> branches, List<Specialization> specializations) {
+            this(branches, null, specializations);
+        }
+
+        private Snapshot(List<Branch> branches, BranchSpatialIndex reusableIndex, List<Specialization> specializations) {
+            this.branches = List.copyOf(branches);
+            this.specializations = List.copyOf(specializations);
+            Map<Integer, Branch> branchIndex = new HashMap<>();
+            for (Branch branch : this.branches) {
+                branchIndex.put(branch.getBranchId(), branch);
+            }
+            Map<Integer, Specialization> specializationIndex = new HashMap<>();
+            for (Specialization specialization : this.specializations) {
+                specializationIndex.put(specialization.getSpecializationId(), specialization);
+            }
+            this.branchesById = Map.copyOf(branchIndex);
+            this.specializationsById = Map.copyOf(specializationIndex);
+            this.branchIndex = reusableIndex != null ? reusableIndex : new BranchSpatialIndex(this.branches);
+        }
+    }
+}
@@ -1,29 +1,71 @@
 package com.ccinfoms17grp2.services;
 
+import com.ccinfoms17grp2.utils.LocationUtil;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class RoutingService {
 
     private static final String ORS_BASE_URL = "http://localhost:8080/ors/v2";
-    private static final int TIMEOUT_MS = 10000;
+    private static final Duration TIMEOUT = Duration.ofMillis(10000);
+    /** Side of a cache cell in degrees, roughly 500 m at Philippine latitudes. */
+    private static final double CACHE_CELL_DEGREES = 0.005;
+    private static final int MAX_CACHED_ROUTES = 4096;
+    /** Straight-line distance times this factor approximates road distance when ORS is unavailable. */
+    private static final double ESTIMATE_ROAD_FACTOR = 1.3;
+    private static final double ESTIMATE_SPEED_KMH = 30.0;
+    private static final Duration PROBE_TIMEOUT = Duration.ofMillis(3000);
+    private static final int BREAKER_FAILURE_THRESHOLD = 3;
+    private static final Duration BREAKER_OPEN_DURATION = Duration.ofSeconds(15);
+
+    private final String baseUrl;
+    private final boolean matrixMode;
+    private final JsonHttpClient http = JsonHttpClient.shared();
+    private final CircuitBreaker breaker = new CircuitBreaker("ORS", BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_DURATION);
+    private final Map<String, RouteResult> routeCache = new LinkedHashMap<String, RouteResult>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RouteResult> eldest) {
+            return size() > MAX_CACHED_ROUTES;
+        }
+    };
+
+    public RoutingService() {
+        this(ORS_BASE_URL, true);
+    }
+
+    /**
+     * @param baseUrl ORS API root, e.g. {@code http://localhost:8080/ors/v2}
+     * @param matrixMode Whether {@link #calculateMultipleRoutes} uses one {@code /matrix} request instead of
+     * one {@code /directions} request per destination
+     */
+    public RoutingService(String baseUrl, boolean matrixMode) {
+        this.baseUrl = baseUrl;
+        this.matrixMode = matrixMode;
+    }
 
     public static class RouteResult {
         private final double distanceKm;
         private final double durationMinutes;
+        private final boolean estimated;
 
         public RouteResult(double distanceKm, double durationMinutes) {
+            this(distanceKm, durationMinutes, false);
+        }
+
+        public RouteResult(double distanceKm, double durationMinutes, boolean estimated) {
             this.distanceKm = distanceKm;
             this.durationMinutes = durationMinutes;
+            this.estimated = estimated;
         }
 
         public double getDistanceKm() {
@@ -34,63 +76,239 @@ public class RoutingService {
             return durationMinutes;
         }
 
+        /**
+         * True when the values are a straight-line estimate made while ORS was unavailable.
+         */
+        public boolean isEstimated() {
+            return estimated;
+        }
+
         @Override
         public String toString() {
-            return String.format("RouteResult{distance=%.2f km, duration=%.1f min}", distanceKm, durationMinutes);
+            return String.format("RouteResult{distance=%.2f km, duration=%.1f min%s}", distanceKm, durationMinutes,
+                estimated ? ", estimated" : "");
         }
     }
 
+    /**
+     * Rough road distance and driving time from the Haversine distance, for use when ORS cannot answer.
+     */
+    public static RouteResult estimateRoute(double startLat, double startLon, double endLat, double endLon) {
+        double distanceKm = LocationUtil.calculateDistance(startLat, startLon, endLat, endLon) * ESTIMATE_ROAD_FACTOR;
+        return new RouteResult(distanceKm, distanceKm / ESTIMATE_SPEED_KMH * 60.0, true);
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    /**
+     * Request ORS's {@code /health} endpoint, bypassing the circuit breaker.
+     *
+     * @return Future completing with whether ORS answered 200
+     */
+    public CompletableFuture<Boolean> probeAsync() {
+        return http.statusAsync(URI.create(baseUrl + "/health"), PROBE_TIMEOUT)
+            .handle((responseCode, error) -> error == null && responseCode == 200);
+    }
+
+    public void startHealthProbe(Duration interval) {
+        breaker.startHealthProbe(this::probeAsync, interval);
+    }
+
+    public void stopHealthProbe() {
+        breaker.close();
+    }
+
     public RouteResult calculateRoute(double startLat, double startLon, double endLat, double endLon) throws Exception {
+        return JsonHttpClient.await(calculateRouteAsync(startLat, startLon, endLat, endLon));
+    }
+
+    /**
+     * Non-blocking form of {@link #calculateRoute}; completes with null if ORS returned no route. ORS answers
+     * 404 for a point it cannot route to, so any client error is treated as no route.
+     */
+    public CompletableFuture<RouteResult> calculateRouteAsync(double startLat, double startLon, double endLat, double endLon) {
         String urlString = String.format("%s/directions/driving-car?start=%f,%f&end=%f,%f",
-                ORS_BASE_URL, startLon, startLat, endLon, endLat);
-
-        URL url = new URL(urlString);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setConnectTimeout(TIMEOUT_MS);
-        conn.setReadTimeout(TIMEOUT_MS);
-        conn.setRequestProperty("Accept", "application/json");
-
-        int responseCode = conn.getResponseCode();
-        if (responseCode != 200) {
-            throw new Exception("Routing service returned status code: " + responseCode);
-        }
+                baseUrl, startLon, startLat, endLon, endLat);
 
-        BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-        StringBuilder response = new StringBuilder();
-        String line;
-        while ((line = reader.readLine()) != null) {
-            response.append(line);
-        }
-        reader.close();
+        URI uri = URI.create(urlString);
+        CompletableFuture<JsonElement> request = breaker.call(() -> http.getJsonAsync(uri, TIMEOUT, "Routing service"));
+        return JsonHttpClient.cancelling(request.handle((json, error) -> {
+            if (error != null) {
+                if (JsonHttpClient.isClientError(error)) {
+                    return null;
+                }
+                throw new CompletionException(JsonHttpClient.unwrap(error));
+            }
+            JsonObject jsonResponse = json.getAsJsonObject();
+            JsonArray routes = jsonResponse.getAsJsonArray("features");
+            
+            if (routes.size() == 0) {
+                return null;
+            }
+
+            JsonObject firstRoute = routes.get(0).getAsJsonObject();
+            JsonObject properties = firstRoute.getAsJsonObject("properties");
+            JsonObject summary = properties.getAsJsonObject("summary");
+            
+            double distanceMeters = summary.get("distance").getAsDouble();
+            double durationSeconds = summary.get("duration").getAsDouble();
+
+            return new RouteResult(distanceMeters / 1000.0, durationSeconds / 60.0);
+        }), request);
+    }
+
+    /**
+     * Travel from one origin to each destination, in destination order.
+     * <p>
+     * Results are cached by origin and destination snapped to a grid of {@value #CACHE_CELL_DEGREES} degree
+     * cells, so patients searching from nearby points reuse each other's travel times. Destinations missing
+     * from the cache are fetched with a single ORS {@code /matrix} request in matrix mode, or one
+     * {@code /directions} request each otherwise. While the ORS circuit is open, or when a request fails,
+     * the missing entries are straight-line estimates ({@link RouteResult#isEstimated()}) and are not cached.
+     *
+     * @param destinations {@code {latitude, longitude}} pairs
+     * @return One entry per destination; {@code null} where ORS reported that no route exists
+     */
+    public List<RouteResult> calculateMultipleRoutes(double startLat, double startLon, List<double[]> destinations) {
+        return calculateMultipleRoutesAsync(startLat, startLon, destinations).join();
+    }
 
-        JsonObject jsonResponse = JsonParser.parseString(response.toString()).getAsJsonObject();
-        JsonArray routes = jsonResponse.getAsJsonArray("features");
-        
-        if (routes.size() == 0) {
-            return null;
+    /**
+     * Non-blocking form of {@link #calculateMultipleRoutes}. The future never completes exceptionally;
+     * failed lookups show up as {@code null} entries.
+     */
+    public CompletableFuture<List<RouteResult>> calculateMultipleRoutesAsync(double startLat, double startLon,
+                                                                          List<double[]> destinations) {
+        List<RouteResult> results = new ArrayList<>(destinations.size());
+        List<Integer> missing = new ArrayList<>();
+        synchronized (routeCache) {
+            for (int i = 0; i < destinations.size(); i++) {
+                double[] dest = destinations.get(i);
+                RouteResult cached = routeCache.get(cacheKey(startLat, startLon, dest[0], dest[1]));
+                results.add(cached);
+                if (cached == null) {
+                    missing.add(i);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(results);
         }
 
-        JsonObject firstRoute = routes.get(0).getAsJsonObject();
-        JsonObject properties = firstRoute.getAsJsonObject("properties");
-        JsonObject summary = properties.getAsJsonObject("summary");
-        
-        double distanceMeters = summary.get("distance").getAsDouble();
-        double durationSeconds = summary.get("duration").getAsDouble();
+        List<double[]> pending = new ArrayList<>(missing.size());
+        for (int index : missing) {
+            pending.add(destinations.get(index));
+        }
+        CompletableFuture<List<RouteResult>> fetched;
+        if (!breaker.isAvailable()) {
+            List<RouteResult> estimates = new ArrayList<>(pending.size());
+            for (double[] dest : pending) {
+                estimates.add(estimateRoute(startLat, startLon, dest[0], dest[1]));
+            }
+            fetched = CompletableFuture.completedFuture(estimates);
+        } else {
+            fetched = matrixMode
+                ? fetchMatrix(startLat, startLon, pending)
+                : fetchDirections(startLat, startLon, pending);
+        }
 
-        return new RouteResult(distanceMeters / 1000.0, durationSeconds / 60.0);
+        return fetched.thenApply(routes -> {
+            synchronized (routeCache) {
+                for (int i = 0; i < missing.size(); i++) {
+                    RouteResult route = routes.get(i);
+                    if (route == null) {
+                        continue;
+                    }
+                    double[] dest = pending.get(i);
+                    if (!route.isEstimated()) {
+                        routeCache.put(cacheKey(startLat, startLon, dest[0], dest[1]), route);
+                    }
+                    results.set(missing.get(i), route);
+                }
+            }
+            return results;
+        });
     }
 
-    public List<RouteResult> calculateMultipleRoutes(double startLat, double startLon, List<double[]> destinations) {
-        List<RouteResult> results = new ArrayList<>();
+    /**
+     * One {@code /directions} request per destination, issued together; the shared client caps how many
+     * reach ORS at once.
+     */
+    private CompletableFuture<List<RouteResult>> fetchDirections(double startLat, double startLon, List<double[]> destinations) {
+        List<CompletableFuture<RouteResult>> requests = new ArrayList<>(destinations.size());
         for (double[] dest : destinations) {
-            try {
-                RouteResult route = calculateRoute(startLat, startLon, dest[0], dest[1]);
-                results.add(route != null ? route : new RouteResult(999999, 999999));
-            } catch (Exception e) {
-                results.add(new RouteResult(999999, 999999));
+            requests.add(calculateRouteAsync(startLat, startLon, dest[0], dest[1]).exceptionally(error -> {
+                System.err.println("[RoutingService] Directions request failed: " + JsonHttpClient.unwrap(error));
+                return estimateRoute(startLat, startLon, dest[0], dest[1]);
+            }));
+        }
+        return CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            List<RouteResult> results = new ArrayList<>(requests.size());
+            for (CompletableFuture<RouteResult> request : requests) {
+                results.add(request.join());
             }
+            return results;
+        });
+    }
+
+    private CompletableFuture<List<RouteResult>> fetchMatrix(double startLat, double startLon, List<double[]> destinations) {
+        JsonArray locations = new JsonArray();
+        locations.add(lonLat(startLat, startLon));
+        JsonArray destinationIndexes = new JsonArray();
+        for (int i = 0; i < destinations.size(); i++) {
+            locations.add(lonLat(destinations.get(i)[0], destinations.get(i)[1]));
+            destinationIndexes.add(i + 1);
         }
-        return results;
+        JsonArray sources = new JsonArray();
+        sources.add(0);
+        JsonArray metrics = new JsonArray();
+        metrics.add("distance");
+        metrics.add("duration");
+        JsonObject request = new JsonObject();
+        request.add("locations", locations);
+        request.add("sources", sources);
+        request.add("destinations", destinationIndexes);
+        request.add("metrics", metrics);
+        request.addProperty("units", "km");
+
+        URI uri = URI.create(baseUrl + "/matrix/driving-car");
+        return breaker.call(() -> http.postJsonAsync(uri, request.toString(), TIMEOUT, "Routing service")).thenApply(json -> {
+            JsonObject response = json.getAsJsonObject();
+            JsonArray distances = response.getAsJsonArray("distances").get(0).getAsJsonArray();
+            JsonArray durations = response.getAsJsonArray("durations").get(0).getAsJsonArray();
+            List<RouteResult> results = new ArrayList<>(destinations.size());
+            for (int i = 0; i < destinations.size(); i++) {
+                JsonElement distance = distances.get(i);
+                JsonElement duration = durations.get(i);
+                results.add(distance.isJsonNull() || duration.isJsonNull()
+                    ? null
+                    : new RouteResult(distance.getAsDouble(), duration.getAsDouble() / 60.0));
+            }
+            return results;
+        }).exceptionally(error -> {
+            System.err.println("[RoutingService] Matrix request failed: " + JsonHttpClient.unwrap(error));
+            List<RouteResult> results = new ArrayList<>(destinations.size());
+            for (double[] dest : destinations) {
+                results.add(estimateRoute(startLat, startLon, dest[0], dest[1]));
+            }
+            return results;
+        });
+    }
+
+    private static JsonArray lonLat(double lat, double lon) {
+        JsonArray point = new JsonArray();
+        point.add(lon);
+        point.add(lat);
+        return point;
+    }
+
+    private static String cacheKey(double startLat, double startLon, double endLat, double endLon) {
+        return cell(startLat) + "," + cell(startLon) + ">" + cell(endLat) + "," + cell(endLon);
+    }
+
+    private static long cell(double degrees) {
+        return Math.round(degrees / CACHE_CELL_DEGREES);
     }
 }
@@ -7,23 +7,35 @@ import com.ccinfoms17grp2.dao.DoctorDAO;
 import com.ccinfoms17grp2.dao.PatientDAO;
 import com.ccinfoms17grp2.dao.QueueDAO;
 import com.ccinfoms17grp2.dao.SpecializationDAO;
+import com.ccinfoms17grp2.dao.TransactionManager;
 import com.ccinfoms17grp2.dao.UserDAO;
 import com.ccinfoms17grp2.dao.impl.AppointmentJdbcDao;
 import com.ccinfoms17grp2.dao.impl.BranchJdbcDao;
 import com.ccinfoms17grp2.dao.impl.ConsultationJdbcDao;
 import com.ccinfoms17grp2.dao.impl.DoctorJdbcDao;
+import com.ccinfoms17grp2.dao.impl.JdbcTransactionManager;
 import com.ccinfoms17grp2.dao.impl.PatientJdbcDao;
 import com.ccinfoms17grp2.dao.impl.QueueJdbcDao;
 import com.ccinfoms17grp2.dao.impl.SpecializationJdbcDao;
 import com.ccinfoms17grp2.dao.impl.UserJdbcDao;
 
+import java.time.Duration;
+
 public class ServiceRegistry {
 
+    private static final Duration REFERENCE_DATA_REFRESH_INTERVAL = Duration.ofMinutes(5);
+    private static final Duration DOCTOR_DIRECTORY_MAX_AGE = Duration.ofMinutes(1);
+    private static final Duration GEO_HEALTH_PROBE_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration LAST_LOGIN_FLUSH_INTERVAL = Duration.ofSeconds(30);
+
+    private final ReferenceDataRegistry referenceData;
+    private final DoctorDirectory doctorDirectory;
     private final PatientService patientService;
     private final DoctorService doctorService;
     private final SpecializationService specializationService;
     private final BranchService branchService;
     private final UserService userService;
+    private final LastLoginRecorder lastLoginRecorder;
     private final AuthService authService;
     private final AppointmentService appointmentService;
     private final ConsultationService consultationService;
@@ -35,29 +47,55 @@ public class ServiceRegistry {
     public ServiceRegistry() {
         this(new PatientJdbcDao(), new DoctorJdbcDao(), new SpecializationJdbcDao(),
              new BranchJdbcDao(), new UserJdbcDao(), new AppointmentJdbcDao(), new ConsultationJdbcDao(),
-             new QueueJdbcDao());
+             new QueueJdbcDao(), new JdbcTransactionManager());
     }
 
     public ServiceRegistry(PatientDAO patientDAO, DoctorDAO doctorDAO,
                           SpecializationDAO specializationDAO, BranchDAO branchDAO,
                           UserDAO userDAO, AppointmentDAO appointmentDAO, ConsultationDAO consultationDAO,
-                          QueueDAO queueDAO) {
-        this.specializationService = new SpecializationService(specializationDAO);
+                          QueueDAO queueDAO, TransactionManager transactionManager) {
+        this.referenceData = new ReferenceDataRegistry(branchDAO, specializationDAO);
+        this.referenceData.startAutoRefresh(REFERENCE_DATA_REFRESH_INTERVAL);
+        this.doctorDirectory = new DoctorDirectory(doctorDAO, DOCTOR_DIRECTORY_MAX_AGE);
+        this.specializationService = new SpecializationService(specializationDAO, referenceData, doctorDirectory);
         this.patientService = new PatientService(patientDAO);
-        this.branchService = new BranchService(branchDAO);
-        this.doctorService = new DoctorService(doctorDAO, specializationDAO);
+        this.branchService = new BranchService(branchDAO, referenceData, doctorDirectory);
+        this.doctorService = new DoctorService(doctorDAO, specializationDAO, doctorDirectory);
         this.userService = new UserService(userDAO);
-        this.authService = new AuthService(userDAO);
+        this.lastLoginRecorder = new LastLoginRecorder(userDAO);
+        this.lastLoginRecorder.startAutoFlush(LAST_LOGIN_FLUSH_INTERVAL);
+        this.authService = new AuthService(userDAO, lastLoginRecorder);
         this.appointmentService = new AppointmentService(appointmentDAO);
-        this.consultationService = new ConsultationService(consultationDAO);
+        this.consultationService = new ConsultationService(consultationDAO, appointmentService, transactionManager);
         this.queueService = new QueueService(queueDAO);
         this.geocodingService = new GeocodingService();
+        this.geocodingService.startHealthProbe(GEO_HEALTH_PROBE_INTERVAL);
         this.routingService = new RoutingService();
+        this.routingService.startHealthProbe(GEO_HEALTH_PROBE_INTERVAL);
         this.enhancedBranchSearchService = new EnhancedBranchSearchService(
-            branchDAO, doctorDAO, appointmentDAO, routingService
+            referenceData, doctorDirectory, appointmentDAO, queueDAO, routingService, WeightedBranchScorer.loadDefault()
         );
     }
 
+    /**
+     * Stops background work started by the services. Intended for application shutdown.
+     */
+    public void shutdown() {
+        referenceData.close();
+        geocodingService.stopHealthProbe();
+        routingService.stopHealthProbe();
+        lastLoginRecorder.close();
+        enhancedBranchSearchService.close();
+    }
+
+    public ReferenceDataRegistry getReferenceData() {
+        return referenceData;
+    }
+
+    public DoctorDirectory getDoctorDirectory() {
+        return doctorDirectory;
+    }
+
     public PatientService getPatientService() {
         return patientService;
     }
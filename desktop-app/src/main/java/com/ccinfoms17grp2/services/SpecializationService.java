@@ -10,13 +10,17 @@ import java.util.Optional;
 public class SpecializationService {
 
     private final SpecializationDAO specializationDAO;
+    private final ReferenceDataRegistry referenceData;
+    private final DoctorDirectory doctorDirectory;
 
-    public SpecializationService(SpecializationDAO specializationDAO) {
+    public SpecializationService(SpecializationDAO specializationDAO, ReferenceDataRegistry referenceData, DoctorDirectory doctorDirectory) {
         this.specializationDAO = Objects.requireNonNull(specializationDAO);
+        this.referenceData = Objects.requireNonNull(referenceData);
+        this.doctorDirectory = Objects.requireNonNull(doctorDirectory);
     }
 
     public List<Specialization> listSpecializations() {
-        return specializationDAO.findAll();
+        return referenceData.getSpecializations();
     }
 
     public Specialization createSpecialization(Specialization specialization) {
@@ -24,7 +28,9 @@ public class SpecializationService {
         if (specializationDAO.existsByCode(specialization.getSpecializationCode())) {
             throw new ValidationException("Specialization code is already in use.");
         }
-        return specializationDAO.create(specialization);
+        Specialization created = specializationDAO.create(specialization);
+        referenceData.refreshSpecializations();
+        return created;
     }
 
     public Specialization updateSpecialization(Specialization specialization) {
@@ -42,6 +48,7 @@ public class SpecializationService {
         if (!updated) {
             throw new ValidationException("Specialization record could not be updated.");
         }
+        referenceData.refreshSpecializations();
         return specializationDAO.findById(specialization.getSpecializationId()).orElse(specialization);
     }
 
@@ -50,6 +57,9 @@ public class SpecializationService {
         if (!deleted) {
             throw new ValidationException("Specialization could not be deleted. Remove linked doctors first.");
         }
+        referenceData.refreshSpecializations();
+        // The delete also removes the id from doctors' specializations_list, which the directory is built from.
+        doctorDirectory.invalidate();
     }
 
     private void validate(Specialization specialization, boolean requireId) {
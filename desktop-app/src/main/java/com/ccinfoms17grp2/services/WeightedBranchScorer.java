@@ -0,0 +1,115 @@
+package com.ccinfoms17grp2.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * {@link BranchScorer} that adds up weighted features:
+ * <pre>
+ *   distanceKm * distancePerKm + travelMinutes * travelPerMinute + queueLoad * queueLoad
+ *       - greenCount * greenDoctor - yellowCount * yellowDoctor
+ * </pre>
+ * where queue load is today's waiting patients divided by branch capacity. Weights come from
+ * {@code search.score.*} keys in {@code branch-scoring.properties}, so each deployment can tune them; the
+ * defaults rank by distance alone, the same as {@link BranchScorer#NEAREST}.
+ */
+public class WeightedBranchScorer implements BranchScorer {
+
+    private static final String PROPERTIES_FILE = "/branch-scoring.properties";
+
+    private final double distancePerKm;
+    private final double travelPerMinute;
+    private final double greenDoctor;
+    private final double yellowDoctor;
+    private final double queueLoad;
+    private final int candidatePoolFactor;
+
+    public WeightedBranchScorer(double distancePerKm, double travelPerMinute, double greenDoctor,
+                                double yellowDoctor, double queueLoad, int candidatePoolFactor) {
+        if (candidatePoolFactor < 1) {
+            throw new IllegalArgumentException("candidatePoolFactor must be at least 1");
+        }
+        this.distancePerKm = distancePerKm;
+        this.travelPerMinute = travelPerMinute;
+        this.greenDoctor = greenDoctor;
+        this.yellowDoctor = yellowDoctor;
+        this.queueLoad = queueLoad;
+        this.candidatePoolFactor = candidatePoolFactor;
+    }
+
+    public static WeightedBranchScorer fromProperties(Properties properties) {
+        return new WeightedBranchScorer(
+                doubleProperty(properties, "search.score.distancePerKm", 1.0),
+                doubleProperty(properties, "search.score.travelPerMinute", 0.0),
+                doubleProperty(properties, "search.score.greenDoctor", 0.0),
+                doubleProperty(properties, "search.score.yellowDoctor", 0.0),
+                doubleProperty(properties, "search.score.queueLoad", 0.0),
+                (int) doubleProperty(properties, "search.score.candidatePoolFactor", 3));
+    }
+
+    /**
+     * Reads {@code branch-scoring.properties} from the classpath; a missing or unreadable file gives the
+     * defaults.
+     */
+    public static WeightedBranchScorer loadDefault() {
+        Properties properties = new Properties();
+        try (InputStream in = WeightedBranchScorer.class.getResourceAsStream(PROPERTIES_FILE)) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException ex) {
+            System.err.println("[WeightedBranchScorer] Failed to read " + PROPERTIES_FILE + ", using defaults: " + ex.getMessage());
+        }
+        return fromProperties(properties);
+    }
+
+    @Override
+    public double score(Features features) {
+        double score = features.getDistanceKm() * distancePerKm;
+        if (travelPerMinute != 0) {
+            score += features.getTravelMinutes() * travelPerMinute;
+        }
+        if (queueLoad != 0) {
+            int capacity = Math.max(1, features.getCapacity());
+            score += (double) features.getQueueLength() / capacity * queueLoad;
+        }
+        score -= features.getGreenCount() * greenDoctor;
+        score -= features.getYellowCount() * yellowDoctor;
+        return score;
+    }
+
+    @Override
+    public boolean usesTravelTime() {
+        return travelPerMinute != 0;
+    }
+
+    @Override
+    public boolean usesQueueLength() {
+        return queueLoad != 0;
+    }
+
+    /**
+     * Distance alone needs no wider pool; any other weight can lift a farther branch above a nearer one.
+     */
+    @Override
+    public int candidatePoolSize(int maxBranches) {
+        boolean distanceOnly = travelPerMinute == 0 && queueLoad == 0 && greenDoctor == 0 && yellowDoctor == 0;
+        if (distanceOnly || maxBranches <= 0) {
+            return maxBranches;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (long) maxBranches * candidatePoolFactor);
+    }
+
+    @Override
+    public String toString() {
+        return "WeightedBranchScorer{distancePerKm=" + distancePerKm + ", travelPerMinute=" + travelPerMinute
+            + ", greenDoctor=" + greenDoctor + ", yellowDoctor=" + yellowDoctor + ", queueLoad=" + queueLoad
+            + ", candidatePoolFactor=" + candidatePoolFactor + "}";
+    }
+
+    private static double doubleProperty(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : Double.parseDouble(value.trim());
+    }
+}
@@ -1,19 +1,25 @@
 package com.ccinfoms17grp2.ui;
 
+import com.ccinfoms17grp2.dao.Page;
+import com.ccinfoms17grp2.dao.PageKey;
 import com.ccinfoms17grp2.models.Appointment;
 import com.ccinfoms17grp2.models.AppointmentStatus;
 import com.ccinfoms17grp2.services.ServiceRegistry;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 public class AdminAppointmentsController implements ViewController {
+    private static final int PAGE_SIZE = 100;
+
     private SceneNavigator navigator;
     private ServiceRegistry services;
+    private final ObservableList<Appointment> loadedAppointments = FXCollections.observableArrayList();
+    private PageKey nextPageKey;
 
     @FXML
     private TableView<Appointment> appointmentsTable;
@@ -47,6 +53,8 @@ public class AdminAppointmentsController implements ViewController {
 
     @FXML
     private void initialize() {
+        UiUtils.onScrolledToBottom(appointmentsTable, this::loadNextPage);
+
         appointmentIdColumn.setCellValueFactory(new PropertyValueFactory<>("appointmentId"));
         patientIdColumn.setCellValueFactory(new PropertyValueFactory<>("patientId"));
         doctorIdColumn.setCellValueFactory(new PropertyValueFactory<>("doctorId"));
@@ -94,7 +102,7 @@ public class AdminAppointmentsController implements ViewController {
         }
 
         try {
-            services.getAppointmentService().updateAppointmentStatus(selected.getAppointmentId(), AppointmentStatus.IN_PROGRESS);
+            services.getAppointmentService().updateAppointmentStatus(selected.getAppointmentId(), selected.getStatus(), AppointmentStatus.IN_PROGRESS);
             statusLabel.setText("Appointment confirmed: #" + selected.getAppointmentId());
             loadAppointments();
         } catch (RuntimeException ex) {
@@ -123,7 +131,7 @@ public class AdminAppointmentsController implements ViewController {
 
         if (confirm) {
             try {
-                services.getAppointmentService().cancelAppointment(selected.getAppointmentId());
+                services.getAppointmentService().cancelAppointment(selected.getAppointmentId(), selected.getStatus());
                 statusLabel.setText("Appointment cancelled: #" + selected.getAppointmentId());
                 loadAppointments();
             } catch (RuntimeException ex) {
@@ -196,13 +204,29 @@ public class AdminAppointmentsController implements ViewController {
             return;
         }
 
+        loadedAppointments.clear();
+        nextPageKey = null;
+        appointmentsTable.setItems(loadedAppointments);
+        fetchPage("Failed to load appointments", "Load Appointments Failed");
+    }
+
+    private void loadNextPage() {
+        if (services == null || nextPageKey == null || appointmentsTable.getItems() != loadedAppointments) {
+            return;
+        }
+        fetchPage("Failed to load more appointments", "Load Appointments Failed");
+    }
+
+    private void fetchPage(String failureStatus, String errorTitle) {
         try {
-            List<Appointment> appointments = services.getAppointmentService().listAppointments();
-            appointmentsTable.setItems(FXCollections.observableArrayList(appointments));
-            statusLabel.setText("Loaded " + appointments.size() + " appointments");
+            Page<Appointment> page = services.getAppointmentService().listAppointmentsPage(nextPageKey, PAGE_SIZE);
+            loadedAppointments.addAll(page.getItems());
+            nextPageKey = page.getNextKey();
+            statusLabel.setText("Loaded " + loadedAppointments.size() + " appointments"
+                + (page.hasMore() ? " (scroll for more)" : ""));
         } catch (RuntimeException ex) {
-            statusLabel.setText("Failed to load appointments");
-            UiUtils.showError("Load Appointments Failed", ex.getMessage());
+            statusLabel.setText(failureStatus);
+            UiUtils.showError(errorTitle, ex.getMessage());
         }
     }
 }
@@ -6,7 +6,6 @@ import com.ccinfoms17grp2.services.ServiceRegistry;
 import com.gluonhq.maps.MapLayer;
 import com.gluonhq.maps.MapPoint;
 import com.gluonhq.maps.MapView;
-import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.geometry.Point2D;
@@ -20,10 +19,11 @@ import javafx.collections.ObservableList;
 import javafx.util.Pair;
 
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 
 public class AdminBranchFormController {
 
+    private static final int SUGGESTION_LIMIT = 5;
+
     private ServiceRegistry services;
     private Branch existingBranch;
     private Branch resultBranch;
@@ -33,6 +33,8 @@ public class AdminBranchFormController {
     private double selectedLon;
     private String selectedAddress;
     private BranchMarkerLayer markerLayer;
+    private TypeAheadSearch<GeocodingService.GeocodingResult> addressSearch;
+    private boolean manualFallbackOnMiss;
 
     @FXML
     private Label titleLabel;
@@ -82,6 +84,16 @@ public class AdminBranchFormController {
 
     public void setServices(ServiceRegistry services) {
         this.services = services;
+        this.addressSearch = new TypeAheadSearch<>(addressSearchField, SUGGESTION_LIMIT,
+            query -> services.getGeocodingService().searchAddressesAsync(query, SUGGESTION_LIMIT),
+            GeocodingService.GeocodingResult::matches,
+            GeocodingService.GeocodingResult::isOffline,
+            this::showSearchResults,
+            this::showSearchError);
+        addressSearch.setOnSearchStarted(() -> {
+            updateStatus("Searching for addresses...");
+            searchResultLabel.setText("");
+        });
     }
 
     public void setExistingBranch(Branch branch) {
@@ -132,36 +144,42 @@ public class AdminBranchFormController {
         }
 
         boolean serviceAvailable = services.getGeocodingService().isServiceAvailable();
-        
-        if (!serviceAvailable) {
-            searchResultLabel.setText("✗ Geocoding service unavailable");
-            updateStatus("Backend services not running. Use manual coordinates.");
-            showManualLocationDialog();
-            return;
-        }
 
-        updateStatus("Searching for addresses...");
         searchResultLabel.setText("");
         suggestionsContainer.getChildren().clear();
+        manualFallbackOnMiss = true;
+        addressSearch.searchNow(query);
+        if (!serviceAvailable) {
+            updateStatus("Geocoding service offline. Searching built-in place list...");
+        }
+    }
 
-        CompletableFuture.supplyAsync(() -> {
-            try {
-                return services.getGeocodingService().searchAddresses(query, 5);
-            } catch (Exception e) {
-                System.out.println("[AdminBranchForm] Search error: " + e.getMessage());
-                return null;
-            }
-        }).thenAccept(results -> Platform.runLater(() -> {
-            if (results != null && !results.isEmpty()) {
-                searchResultLabel.setText("✓ Found " + results.size() + " results");
-                updateStatus("Select an address from suggestions");
-                displaySuggestions(results);
-            } else {
-                searchResultLabel.setText("✗ No addresses found");
-                updateStatus("Try a different search or use manual input");
+    private void showSearchResults(List<GeocodingService.GeocodingResult> results) {
+        boolean offerManual = manualFallbackOnMiss;
+        manualFallbackOnMiss = false;
+        if (!results.isEmpty()) {
+            searchResultLabel.setText("✓ Found " + results.size() + " results");
+            updateStatus("Select an address from suggestions");
+            displaySuggestions(results);
+        } else {
+            suggestionsContainer.getChildren().clear();
+            searchResultLabel.setText("✗ No addresses found");
+            updateStatus("Try a different search or use manual input");
+            if (offerManual) {
                 showManualLocationDialog();
             }
-        }));
+        }
+    }
+
+    private void showSearchError(Throwable error) {
+        boolean offerManual = manualFallbackOnMiss;
+        manualFallbackOnMiss = false;
+        System.out.println("[AdminBranchForm] Search error: " + error.getMessage());
+        searchResultLabel.setText("✗ Geocoding service unavailable");
+        updateStatus("Backend services not running. Use manual coordinates.");
+        if (offerManual) {
+            showManualLocationDialog();
+        }
     }
 
     private void displaySuggestions(List<GeocodingService.GeocodingResult> results) {
@@ -188,6 +206,7 @@ public class AdminBranchFormController {
     }
 
     private void selectAddress(GeocodingService.GeocodingResult result) {
+        addressSearch.cancel();
         selectedLat = result.getLatitude();
         selectedLon = result.getLongitude();
         selectedAddress = result.getDisplayName();
@@ -273,7 +292,8 @@ public class AdminBranchFormController {
             return;
         }
 
-        Branch branch = isEditMode ? existingBranch : new Branch();
+        // Edit a copy: the listed branch is shared with the reference data snapshot.
+        Branch branch = new Branch();
         if (isEditMode) {
             branch.setBranchId(existingBranch.getBranchId());
         }
@@ -286,6 +306,7 @@ public class AdminBranchFormController {
         branch.setLongitude(selectedLon);
 
         resultBranch = branch;
+        addressSearch.cancel();
         
         Stage stage = (Stage) saveButton.getScene().getWindow();
         stage.close();
@@ -293,6 +314,7 @@ public class AdminBranchFormController {
 
     @FXML
     private void handleCancel() {
+        addressSearch.cancel();
         resultBranch = null;
         Stage stage = (Stage) saveButton.getScene().getWindow();
         stage.close();
@@ -1,18 +1,24 @@
 package com.ccinfoms17grp2.ui;
 
+import com.ccinfoms17grp2.dao.Page;
+import com.ccinfoms17grp2.dao.PageKey;
 import com.ccinfoms17grp2.models.Consultation;
 import com.ccinfoms17grp2.services.ServiceRegistry;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 public class AdminConsultationsController implements ViewController {
+    private static final int PAGE_SIZE = 100;
+
     private SceneNavigator navigator;
     private ServiceRegistry services;
+    private final ObservableList<Consultation> loadedConsultations = FXCollections.observableArrayList();
+    private PageKey nextPageKey;
 
     @FXML
     private TableView<Consultation> consultationsTable;
@@ -40,6 +46,8 @@ public class AdminConsultationsController implements ViewController {
 
     @FXML
     private void initialize() {
+        UiUtils.onScrolledToBottom(consultationsTable, this::loadNextPage);
+
         consultationIdColumn.setCellValueFactory(new PropertyValueFactory<>("consultationId"));
         appointmentIdColumn.setCellValueFactory(new PropertyValueFactory<>("appointmentId"));
         diagnosisColumn.setCellValueFactory(new PropertyValueFactory<>("diagnosis"));
@@ -147,13 +155,29 @@ public class AdminConsultationsController implements ViewController {
             return;
         }
 
+        loadedConsultations.clear();
+        nextPageKey = null;
+        consultationsTable.setItems(loadedConsultations);
+        fetchPage("Failed to load consultations", "Load Consultations Failed");
+    }
+
+    private void loadNextPage() {
+        if (services == null || nextPageKey == null || consultationsTable.getItems() != loadedConsultations) {
+            return;
+        }
+        fetchPage("Failed to load more consultations", "Load Consultations Failed");
+    }
+
+    private void fetchPage(String failureStatus, String errorTitle) {
         try {
-            List<Consultation> consultations = services.getConsultationService().listConsultations();
-            consultationsTable.setItems(FXCollections.observableArrayList(consultations));
-            statusLabel.setText("Loaded " + consultations.size() + " consultations");
+            Page<Consultation> page = services.getConsultationService().listConsultationsPage(nextPageKey, PAGE_SIZE);
+            loadedConsultations.addAll(page.getItems());
+            nextPageKey = page.getNextKey();
+            statusLabel.setText("Loaded " + loadedConsultations.size() + " consultations"
+                + (page.hasMore() ? " (scroll for more)" : ""));
         } catch (RuntimeException ex) {
-            statusLabel.setText("Failed to load consultations");
-            UiUtils.showError("Load Consultations Failed", ex.getMessage());
+            statusLabel.setText(failureStatus);
+            UiUtils.showError(errorTitle, ex.getMessage());
         }
     }
 }
@@ -48,7 +48,7 @@ public class AdminDashboardController implements ViewController {
         }
         promptAppointmentId("Confirm Appointment").ifPresent(appointmentId -> {
             try {
-                services.getAppointmentService().updateAppointmentStatus(appointmentId, AppointmentStatus.IN_PROGRESS);
+                services.getAppointmentService().updateAppointmentStatus(appointmentId, AppointmentStatus.SCHEDULED, AppointmentStatus.IN_PROGRESS);
                 updateStatus("Appointment #" + appointmentId + " confirmed");
             } catch (RuntimeException ex) {
                 reportError("Unable to confirm appointment", ex);
@@ -63,7 +63,7 @@ public class AdminDashboardController implements ViewController {
         }
         promptAppointmentId("Cancel Appointment").ifPresent(appointmentId -> {
             try {
-                services.getAppointmentService().cancelAppointment(appointmentId);
+                services.getAppointmentService().cancelAppointment(appointmentId, AppointmentStatus.SCHEDULED);
                 updateStatus("Appointment #" + appointmentId + " canceled");
             } catch (RuntimeException ex) {
                 reportError("Unable to cancel appointment", ex);
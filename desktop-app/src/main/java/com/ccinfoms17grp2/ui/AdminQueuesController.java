@@ -90,7 +90,7 @@ public class AdminQueuesController implements ViewController {
         }
 
         try {
-            services.getQueueService().updateQueueStatus(selected.getQueueId(), QueueStatus.CALLED);
+            services.getQueueService().updateQueueStatus(selected.getQueueId(), selected.getStatus(), QueueStatus.CALLED);
             statusLabel.setText("Queue advanced for queue #" + selected.getQueueId());
             loadQueues();
         } catch (RuntimeException ex) {
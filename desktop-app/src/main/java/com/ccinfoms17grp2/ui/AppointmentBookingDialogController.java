@@ -5,6 +5,8 @@ import com.ccinfoms17grp2.models.AppointmentStatus;
 import com.ccinfoms17grp2.models.BranchWithDoctors;
 import com.ccinfoms17grp2.models.BranchWithDoctors.DoctorAvailabilityInfo;
 import com.ccinfoms17grp2.models.Specialization;
+import com.ccinfoms17grp2.services.GeocodingService;
+import com.ccinfoms17grp2.services.JsonHttpClient;
 import com.ccinfoms17grp2.services.ServiceRegistry;
 import com.gluonhq.maps.MapPoint;
 import com.gluonhq.maps.MapView;
@@ -33,6 +35,8 @@ public class AppointmentBookingDialogController {
     private double patientLat;
     private double patientLon;
     private String patientLocationName;
+    private TypeAheadSearch<GeocodingService.GeocodingResult> locationSearch;
+    private boolean manualFallbackOnMiss;
 
     @FXML
     private Label statusLabel;
@@ -67,6 +71,22 @@ public class AppointmentBookingDialogController {
     public void setServices(ServiceRegistry services) {
         this.services = services;
         loadSpecializations();
+        this.locationSearch = new TypeAheadSearch<>(locationField, 1,
+            query -> {
+                CompletableFuture<GeocodingService.GeocodingResult> lookup =
+                    services.getGeocodingService().geocodeAddressAsync(query);
+                return JsonHttpClient.cancelling(
+                    lookup.thenApply(result -> result == null ? List.<GeocodingService.GeocodingResult>of() : List.of(result)),
+                    lookup);
+            },
+            GeocodingService.GeocodingResult::matches,
+            GeocodingService.GeocodingResult::isOffline,
+            this::showLocationResult,
+            this::showLocationError);
+        locationSearch.setOnSearchStarted(() -> {
+            updateStatus("Searching for location...");
+            locationResultLabel.setText("");
+        });
     }
 
     public void setPatientId(int patientId) {
@@ -119,38 +139,44 @@ public class AppointmentBookingDialogController {
         System.out.println("[AppointmentBooking] Checking geocoding service availability...");
         boolean serviceAvailable = services.getGeocodingService().isServiceAvailable();
         System.out.println("[AppointmentBooking] Geocoding service available: " + serviceAvailable);
-        
-        if (!serviceAvailable) {
-            locationResultLabel.setText("✗ Geocoding service unavailable");
-            updateStatus("Backend services not running. Using manual coordinates.");
-            showManualLocationDialog();
-            return;
-        }
 
-        updateStatus("Searching for location...");
         locationResultLabel.setText("");
+        manualFallbackOnMiss = true;
+        locationSearch.searchNow(location);
+        if (!serviceAvailable) {
+            updateStatus("Geocoding service offline. Searching built-in place list...");
+        }
+    }
 
-        CompletableFuture.supplyAsync(() -> {
-            try {
-                return services.getGeocodingService().geocodeAddress(location);
-            } catch (Exception e) {
-                System.out.println("[AppointmentBooking] Geocoding error: " + e.getMessage());
-                return null;
-            }
-        }).thenAccept(result -> Platform.runLater(() -> {
-            if (result != null) {
-                patientLat = result.getLatitude();
-                patientLon = result.getLongitude();
-                patientLocationName = result.getDisplayName();
-                locationResultLabel.setText("✓ Found: " + patientLocationName);
-                updateStatus("Location found");
-                updateMapWithPatientLocation();
-            } else {
-                locationResultLabel.setText("✗ Location not found");
-                updateStatus("Location not found. Try a different search or use manual input.");
+    private void showLocationResult(List<GeocodingService.GeocodingResult> results) {
+        boolean offerManual = manualFallbackOnMiss;
+        manualFallbackOnMiss = false;
+        if (!results.isEmpty()) {
+            GeocodingService.GeocodingResult result = results.get(0);
+            patientLat = result.getLatitude();
+            patientLon = result.getLongitude();
+            patientLocationName = result.getDisplayName();
+            locationResultLabel.setText("✓ Found: " + patientLocationName);
+            updateStatus("Location found");
+            updateMapWithPatientLocation();
+        } else {
+            locationResultLabel.setText("✗ Location not found");
+            updateStatus("Location not found. Try a different search or use manual input.");
+            if (offerManual) {
                 showManualLocationDialog();
             }
-        }));
+        }
+    }
+
+    private void showLocationError(Throwable error) {
+        boolean offerManual = manualFallbackOnMiss;
+        manualFallbackOnMiss = false;
+        System.out.println("[AppointmentBooking] Geocoding error: " + error.getMessage());
+        locationResultLabel.setText("✗ Geocoding service unavailable");
+        updateStatus("Backend services not running. Using manual coordinates.");
+        if (offerManual) {
+            showManualLocationDialog();
+        }
     }
 
     private void showManualLocationDialog() {
@@ -249,6 +275,13 @@ public class AppointmentBookingDialogController {
 
         card.getChildren().addAll(branchName, distance, address);
 
+        if (!branchData.isFullyEvaluated()) {
+            Label unverified = new Label("Some ranking data was unavailable; availability may change");
+            unverified.setStyle("-fx-text-fill: #856404; -fx-font-size: 11px;");
+            unverified.setWrapText(true);
+            card.getChildren().add(unverified);
+        }
+
         VBox doctorsBox = new VBox(4.0);
         doctorsBox.setPadding(new Insets(8, 0, 0, 0));
 
@@ -314,6 +347,7 @@ public class AppointmentBookingDialogController {
             alert.setContentText("Your appointment has been scheduled successfully!");
             alert.showAndWait();
 
+            locationSearch.cancel();
             Stage stage = (Stage) branchListContainer.getScene().getWindow();
             stage.close();
         } catch (Exception ex) {
@@ -323,6 +357,7 @@ public class AppointmentBookingDialogController {
 
     @FXML
     private void handleCancel() {
+        locationSearch.cancel();
         Stage stage = (Stage) branchListContainer.getScene().getWindow();
         stage.close();
     }
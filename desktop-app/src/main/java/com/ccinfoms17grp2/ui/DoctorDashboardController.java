@@ -230,7 +230,7 @@ public class DoctorDashboardController implements ViewController {
             if (result.get().equals("Cancel Appointment")) {
                 if (UiUtils.showConfirmation("Confirm", "Are you sure you want to cancel this appointment?")) {
                     try {
-                        services.getAppointmentService().cancelAppointment(appointment.getAppointmentId());
+                        services.getAppointmentService().cancelAppointment(appointment.getAppointmentId(), appointment.getStatus());
                         UiUtils.showInfo("Success", "Appointment canceled successfully");
                         refreshAppointments();
                     } catch (RuntimeException ex) {
@@ -429,10 +429,9 @@ public class DoctorDashboardController implements ViewController {
         
         result.ifPresent(consultation -> {
             try {
-                services.getConsultationService().createConsultation(consultation);
-                services.getAppointmentService().updateAppointmentStatus(
-                        appointment.getAppointmentId(), 
-                        AppointmentStatus.COMPLETED
+                services.getConsultationService().completeAppointmentWithConsultation(
+                        consultation,
+                        appointment.getStatus()
                 );
                 UiUtils.showInfo("Success", "Consultation created and appointment marked as completed");
                 refreshAppointments();
@@ -122,13 +122,9 @@ public class PatientHomeController implements ViewController {
             return;
         }
         try {
-            boolean success = services.getAppointmentService().cancelAppointment(selected.getAppointmentId());
-            if (success) {
-                updateStatus("Appointment #" + selected.getAppointmentId() + " canceled");
-                refreshAppointments();
-            } else {
-                updateStatus("Failed to cancel appointment - please try again");
-            }
+            services.getAppointmentService().cancelAppointment(selected.getAppointmentId(), selected.getStatus());
+            updateStatus("Appointment #" + selected.getAppointmentId() + " canceled");
+            refreshAppointments();
         } catch (RuntimeException ex) {
             updateStatus("Unable to cancel appointment: " + ex.getMessage());
             UiUtils.showError("Cancel Appointment", ex.getMessage());
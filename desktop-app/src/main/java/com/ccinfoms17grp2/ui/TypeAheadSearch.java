@@ -0,0 +1,178 @@
+package com.ccinfoms17grp2.ui;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Search-as-you-type for a {@link TextField}.
+ * <p>
+ * Keystrokes restart a short pause; the search runs only once typing stops. Starting a search cancels the
+ * one still in flight, and every search carries a sequence number so a late answer for an older query is
+ * dropped instead of overwriting a newer one.
+ * <p>
+ * While typing, a query can be answered locally from an earlier one when the earlier query is a prefix of it,
+ * returned fewer than {@code limit} results, and every one of those results came from a backend that matches
+ * word prefixes (see the {@code prefixMatched} constructor argument). Only then is the earlier answer known to
+ * hold every match for the longer query. Nominatim matches whole words, so "mak" finding nothing says nothing
+ * about "makati"; its answers are never narrowed, and empty answers are never reused at all. The Search button
+ * ({@link #searchNow}) always asks the backend.
+ * <p>
+ * All callbacks run on the JavaFX application thread.
+ */
+public class TypeAheadSearch<T> {
+
+    private static final Duration DEFAULT_DEBOUNCE = Duration.millis(350);
+    private static final int MIN_QUERY_LENGTH = 3;
+    private static final int MAX_REMEMBERED_QUERIES = 32;
+
+    private final int limit;
+    private final Function<String, CompletableFuture<List<T>>> search;
+    private final BiPredicate<T, String> matcher;
+    private final Predicate<T> prefixMatched;
+    private final Consumer<List<T>> onResults;
+    private final Consumer<Throwable> onError;
+    private final PauseTransition debounce;
+    private final Map<String, List<T>> answered = new LinkedHashMap<String, List<T>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<T>> eldest) {
+            return size() > MAX_REMEMBERED_QUERIES;
+        }
+    };
+
+    private long sequence;
+    private CompletableFuture<List<T>> inFlight;
+    private Runnable onSearchStarted = () -> { };
+
+    /**
+     * @param field Field to watch
+     * @param limit Result limit passed to the server; needed to tell complete answers from truncated ones
+     * @param search Runs the server query for the given text
+     * @param matcher Whether a result for a shorter query also matches the given longer query (lower-cased)
+     * @param prefixMatched Whether a result came from a backend that matches every query word as a word prefix,
+     *                      so that {@code matcher} may narrow its answer
+     * @param onResults Receives results for the latest query
+     * @param onError Receives failures for the latest query
+     */
+    public TypeAheadSearch(TextField field, int limit,
+                           Function<String, CompletableFuture<List<T>>> search,
+                           BiPredicate<T, String> matcher,
+                           Predicate<T> prefixMatched,
+                           Consumer<List<T>> onResults,
+                           Consumer<Throwable> onError) {
+        this.limit = limit;
+        this.search = search;
+        this.matcher = matcher;
+        this.prefixMatched = prefixMatched;
+        this.onResults = onResults;
+        this.onError = onError;
+        this.debounce = new PauseTransition(DEFAULT_DEBOUNCE);
+        this.debounce.setOnFinished(event -> search(field.getText(), true));
+        field.textProperty().addListener((obs, oldText, newText) -> {
+            cancel();
+            if (newText != null && newText.trim().length() >= MIN_QUERY_LENGTH) {
+                debounce.playFromStart();
+            }
+        });
+    }
+
+    /**
+     * Called on the FX thread just before a query is sent to the server (not for locally answered queries).
+     */
+    public void setOnSearchStarted(Runnable onSearchStarted) {
+        this.onSearchStarted = onSearchStarted;
+    }
+
+    /**
+     * Runs the search immediately, e.g. from a Search button, skipping the debounce. The query always goes to
+     * the backend, never to answers remembered from typing.
+     */
+    public void searchNow(String text) {
+        search(text, false);
+    }
+
+    private void search(String text, boolean allowLocal) {
+        debounce.stop();
+        cancel();
+        String query = normalize(text);
+        if (query.isEmpty()) {
+            return;
+        }
+        long ticket = sequence;
+
+        List<T> local = allowLocal ? answerLocally(query) : null;
+        if (local != null) {
+            onResults.accept(local);
+            return;
+        }
+
+        onSearchStarted.run();
+        CompletableFuture<List<T>> request = search.apply(query);
+        inFlight = request;
+        request.whenComplete((results, error) -> Platform.runLater(() -> {
+            if (ticket != sequence || request.isCancelled()) {
+                return;
+            }
+            inFlight = null;
+            if (error != null) {
+                onError.accept(error);
+                return;
+            }
+            List<T> answer = results == null ? List.of() : List.copyOf(results);
+            if (answer.isEmpty()) {
+                answered.remove(query);
+            } else {
+                answered.put(query, answer);
+            }
+            onResults.accept(answer);
+        }));
+    }
+
+    /**
+     * Abandons the pending or running search; its results, if any arrive, are ignored.
+     */
+    public void cancel() {
+        sequence++;
+        debounce.stop();
+        if (inFlight != null) {
+            inFlight.cancel(true);
+            inFlight = null;
+        }
+    }
+
+    private List<T> answerLocally(String query) {
+        List<T> exact = answered.get(query);
+        if (exact != null) {
+            return exact;
+        }
+        for (int end = query.length() - 1; end >= MIN_QUERY_LENGTH; end--) {
+            List<T> shorter = answered.get(query.substring(0, end));
+            if (shorter != null && shorter.size() < limit && shorter.stream().allMatch(prefixMatched)) {
+                List<T> filtered = new ArrayList<>();
+                for (T candidate : shorter) {
+                    if (matcher.test(candidate, query)) {
+                        filtered.add(candidate);
+                    }
+                }
+                return filtered;
+            }
+        }
+        return null;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+}
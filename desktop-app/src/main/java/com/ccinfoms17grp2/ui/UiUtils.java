@@ -1,9 +1,13 @@
 package com.ccinfoms17grp2.ui;
 
 import javafx.application.Platform;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonBar;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
 
 import java.util.Optional;
 
@@ -60,6 +64,35 @@ public final class UiUtils {
         return result.isPresent() && result.get() == ButtonType.OK;
     }
 
+    /**
+     * Runs {@code action} whenever the table's vertical scroll bar reaches the bottom. The scroll bar only
+     * exists once the table skin is installed, so the listener is attached lazily.
+     */
+    public static void onScrolledToBottom(TableView<?> table, Runnable action) {
+        if (table.getSkin() != null) {
+            attachBottomListener(table, action);
+        } else {
+            table.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+                if (newSkin != null) {
+                    Platform.runLater(() -> attachBottomListener(table, action));
+                }
+            });
+        }
+    }
+
+    private static void attachBottomListener(TableView<?> table, Runnable action) {
+        for (Node node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                ScrollBar bar = (ScrollBar) node;
+                bar.valueProperty().addListener((obs, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= bar.getMax() && oldValue.doubleValue() < bar.getMax()) {
+                        action.run();
+                    }
+                });
+            }
+        }
+    }
+
     public static void showWarning(String title, String message) {
         Platform.runLater(() -> {
             Alert alert = new Alert(Alert.AlertType.WARNING);
@@ -11,6 +11,8 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class for parsing doctor availability schedules stored as JSON.
@@ -19,6 +21,8 @@ import java.util.List;
 public class AvailabilityParser {
 
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+    private static final int MAX_COMPILED_SCHEDULES = 1024;
+    private static final Map<String, WeeklySchedule> COMPILED_SCHEDULES = new ConcurrentHashMap<>();
 
     /**
      * Represents a single availability time slot for a specific day.
@@ -99,6 +103,28 @@ public class AvailabilityParser {
         return slots;
     }
 
+    /**
+     * Compile a JSON availability string into a {@link WeeklySchedule}. Schedules are interned by JSON text,
+     * so each distinct schedule is parsed once no matter how many doctors or checks share it.
+     *
+     * @param availabilityJson JSON availability string
+     * @return Compiled schedule, empty when the string is null or blank
+     */
+    public static WeeklySchedule compile(String availabilityJson) {
+        if (availabilityJson == null || availabilityJson.trim().isEmpty()) {
+            return WeeklySchedule.EMPTY;
+        }
+        WeeklySchedule schedule = COMPILED_SCHEDULES.get(availabilityJson);
+        if (schedule != null) {
+            return schedule;
+        }
+        if (COMPILED_SCHEDULES.size() >= MAX_COMPILED_SCHEDULES) {
+            COMPILED_SCHEDULES.clear();
+        }
+        return COMPILED_SCHEDULES.computeIfAbsent(availabilityJson,
+            json -> new WeeklySchedule(parseAvailability(json)));
+    }
+
     /**
      * Check if a doctor is available at a specific datetime.
      *
@@ -107,8 +133,7 @@ public class AvailabilityParser {
      * @return true if available, false otherwise
      */
     public static boolean isAvailableAt(String availabilityJson, LocalDateTime datetime) {
-        List<AvailabilitySlot> slots = parseAvailability(availabilityJson);
-        return slots.stream().anyMatch(slot -> slot.isAvailableAt(datetime));
+        return compile(availabilityJson).isAvailableAt(datetime);
     }
 
     /**
@@ -116,19 +141,10 @@ public class AvailabilityParser {
      *
      * @param availabilityJson JSON availability string
      * @param date The date to check
-     * @return List of time ranges available on that date
+     * @return Unmodifiable list of time ranges available on that date
      */
     public static List<AvailabilitySlot> getAvailableSlotsForDate(String availabilityJson, LocalDate date) {
-        List<AvailabilitySlot> allSlots = parseAvailability(availabilityJson);
-        DayOfWeek targetDay = date.getDayOfWeek();
-        
-        List<AvailabilitySlot> daySlots = new ArrayList<>();
-        for (AvailabilitySlot slot : allSlots) {
-            if (slot.getDayOfWeek() == targetDay) {
-                daySlots.add(slot);
-            }
-        }
-        return daySlots;
+        return compile(availabilityJson).getSlots(date.getDayOfWeek());
     }
 
     private static DayOfWeek parseDayOfWeek(String dayStr) {
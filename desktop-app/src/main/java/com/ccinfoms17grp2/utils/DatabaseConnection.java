@@ -2,8 +2,8 @@ package com.ccinfoms17grp2.utils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Objects;
 import java.util.Properties;
@@ -12,6 +12,7 @@ import java.util.logging.Logger;
 
 /**
  * Central place for obtaining JDBC connections using the configuration under {@code db.properties}.
+ * Connections come from a shared {@link PooledDataSource}; closing them hands them back to the pool.
  */
 public final class DatabaseConnection {
 
@@ -19,6 +20,8 @@ public final class DatabaseConnection {
     private static final String PROPERTIES_FILE = "/db.properties";
     private static final Properties PROPERTIES = new Properties();
 
+    private static volatile PooledDataSource dataSource;
+
     static {
         try (InputStream in = DatabaseConnection.class.getResourceAsStream(PROPERTIES_FILE)) {
             if (in == null) {
@@ -34,16 +37,47 @@ public final class DatabaseConnection {
     }
 
     public static Connection getConnection() throws SQLException {
-        final String url = Objects.requireNonNull(PROPERTIES.getProperty("db.url"), "db.url property is required");
-        final String username = PROPERTIES.getProperty("db.user", "");
-        final String password = PROPERTIES.getProperty("db.password", "");
-        // TODO: migrate to staging
-        // final String url = "localhost:3306/primary_db";
-        // final String username = "root";
-        // final String password = "dudewtf12345";
-        LOGGER.log(Level.FINE, () -> "Opening JDBC connection to " + url);
-        System.out.println("Opening JDBC connection to " + url);
-        return DriverManager.getConnection(url, username, password);
+        return getDataSource().getConnection();
+    }
+
+    /**
+     * Returns the shared pool, creating it on first use so that loading this class never opens sockets.
+     */
+    public static DataSource getDataSource() {
+        return pool();
+    }
+
+    public static PooledDataSource.Statistics getPoolStatistics() {
+        return pool().getStatistics();
+    }
+
+    /**
+     * Closes pooled connections. Intended for application shutdown.
+     */
+    public static synchronized void shutdown() {
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
+    }
+
+    private static PooledDataSource pool() {
+        PooledDataSource current = dataSource;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = dataSource;
+                if (current == null) {
+                    final String url = Objects.requireNonNull(PROPERTIES.getProperty("db.url"), "db.url property is required");
+                    final String username = PROPERTIES.getProperty("db.user", "");
+                    final String password = PROPERTIES.getProperty("db.password", "");
+                    PooledDataSource.Settings settings = PooledDataSource.Settings.fromProperties(PROPERTIES);
+                    LOGGER.log(Level.FINE, () -> "Creating JDBC connection pool for " + url);
+                    current = new PooledDataSource(url, username, password, settings);
+                    dataSource = current;
+                }
+            }
+        }
+        return current;
     }
 
     public static String getDatabaseName() {
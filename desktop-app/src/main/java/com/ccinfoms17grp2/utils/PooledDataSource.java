@@ -0,0 +1,479 @@
+package com.ccinfoms17grp2.utils;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded JDBC connection pool backed by {@link DriverManager}.
+ * <p>
+ * Connections handed out by {@link #getConnection()} are proxies whose {@code close()} returns the
+ * physical connection to the pool instead of closing it, so DAOs keep their try-with-resources blocks.
+ * A daemon housekeeper evicts idle connections above {@code minSize}, tops the pool back up to
+ * {@code minSize} and reports connections held longer than the leak threshold together with the stack
+ * trace captured when they were borrowed.
+ */
+public final class PooledDataSource implements DataSource, AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(PooledDataSource.class.getName());
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final Settings settings;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Map<PooledConnection, Boolean> leased = new ConcurrentHashMap<>();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong validationFailureCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public PooledDataSource(String url, String username, String password, Settings settings) {
+        this.url = Objects.requireNonNull(url, "url");
+        this.username = username;
+        this.password = password;
+        this.settings = Objects.requireNonNull(settings, "settings");
+        this.permits = new Semaphore(settings.maxSize, true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jdbc-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = settings.housekeepingIntervalMs;
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(settings.borrowTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", ex);
+        }
+        if (!acquired) {
+            timeoutCount.incrementAndGet();
+            throw new SQLException("Timed out after " + settings.borrowTimeoutMs
+                    + " ms waiting for a connection (" + getStatistics() + ")");
+        }
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = openPhysical();
+            }
+            pooled.lease();
+            leased.put(pooled, Boolean.TRUE);
+            borrowCount.incrementAndGet();
+            return pooled.proxy;
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String user, String pass) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections always use the configured credentials");
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(totalConnections.get(), idle.size(), leased.size(), permits.getQueueLength(),
+                borrowCount.get(), createdCount.get(), destroyedCount.get(), timeoutCount.get(),
+                validationFailureCount.get(), leakCount.get());
+    }
+
+    /**
+     * Stops the housekeeper and closes every idle connection. Connections still leased are closed as they
+     * are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    private PooledConnection takeValidIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            validationFailureCount.incrementAndGet();
+            destroy(pooled);
+        }
+        return null;
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        // A connection returned moments ago is trusted; anything older gets a driver-level ping.
+        if (System.currentTimeMillis() - pooled.lastReturnedAt < settings.validationBypassMs) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(settings.validationTimeoutSeconds);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private PooledConnection openPhysical() throws SQLException {
+        LOGGER.log(Level.FINE, () -> "Opening pooled JDBC connection to " + url);
+        Connection physical = DriverManager.getConnection(url, username, password);
+        totalConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void release(PooledConnection pooled) {
+        leased.remove(pooled);
+        try {
+            if (closed || pooled.physical.isClosed()) {
+                destroy(pooled);
+                return;
+            }
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.physical.clearWarnings();
+            pooled.lastReturnedAt = System.currentTimeMillis();
+            idle.offerFirst(pooled);
+        } catch (SQLException ex) {
+            LOGGER.log(Level.FINE, "Discarding pooled connection that failed to reset", ex);
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        destroyedCount.incrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            fillToMinimum();
+            detectLeaks();
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Connection pool housekeeping failed", ex);
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        // Oldest returns sit at the tail of the deque, so walk from there.
+        while (totalConnections.get() > settings.minSize) {
+            PooledConnection candidate = idle.peekLast();
+            if (candidate == null || now - candidate.lastReturnedAt < settings.idleTimeoutMs) {
+                return;
+            }
+            if (idle.removeLastOccurrence(candidate)) {
+                destroy(candidate);
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < settings.minSize) {
+            if (!permits.tryAcquire()) {
+                return;
+            }
+            try {
+                PooledConnection pooled = openPhysical();
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.offerLast(pooled);
+            } catch (SQLException ex) {
+                LOGGER.log(Level.FINE, "Could not pre-open pooled connection", ex);
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        if (settings.leakThresholdMs <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : leased.keySet()) {
+            Throwable origin = pooled.borrowSite;
+            if (!pooled.leakReported && origin != null && now - pooled.borrowedAt > settings.leakThresholdMs) {
+                pooled.leakReported = true;
+                leakCount.incrementAndGet();
+                LOGGER.log(Level.WARNING, "Possible connection leak: connection held for "
+                        + (now - pooled.borrowedAt) + " ms", origin);
+            }
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return LOGGER;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * One physical connection plus the bookkeeping needed while it is leased.
+     */
+    private final class PooledConnection implements InvocationHandler {
+
+        private final Connection physical;
+        private final Connection proxy;
+        private volatile long borrowedAt;
+        private volatile long lastReturnedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+        private volatile boolean logicallyClosed = true;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        private void lease() {
+            borrowedAt = System.currentTimeMillis();
+            borrowSite = settings.leakThresholdMs > 0 ? new Throwable("Connection borrowed here") : null;
+            leakReported = false;
+            logicallyClosed = false;
+        }
+
+        @Override
+        public Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!logicallyClosed) {
+                        logicallyClosed = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return logicallyClosed || physical.isClosed();
+                case "equals":
+                    return proxyInstance == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxyInstance);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(physical)) {
+                        return physical;
+                    }
+                    return physical.unwrap((Class<?>) args[0]);
+                default:
+                    break;
+            }
+            if (logicallyClosed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+
+    /**
+     * Pool sizing and timing knobs. Read from {@code db.pool.*} keys in {@code db.properties}.
+     */
+    public static final class Settings {
+
+        private final int minSize;
+        private final int maxSize;
+        private final long borrowTimeoutMs;
+        private final long idleTimeoutMs;
+        private final long leakThresholdMs;
+        private final long validationBypassMs;
+        private final int validationTimeoutSeconds;
+        private final long housekeepingIntervalMs;
+
+        public Settings(int minSize, int maxSize, long borrowTimeoutMs, long idleTimeoutMs, long leakThresholdMs,
+                        long validationBypassMs, int validationTimeoutSeconds, long housekeepingIntervalMs) {
+            if (maxSize <= 0 || minSize < 0 || minSize > maxSize) {
+                throw new IllegalArgumentException("Pool size must satisfy 0 <= min <= max and max > 0");
+            }
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.borrowTimeoutMs = borrowTimeoutMs;
+            this.idleTimeoutMs = idleTimeoutMs;
+            this.leakThresholdMs = leakThresholdMs;
+            this.validationBypassMs = validationBypassMs;
+            this.validationTimeoutSeconds = validationTimeoutSeconds;
+            this.housekeepingIntervalMs = Math.max(1000L, housekeepingIntervalMs);
+        }
+
+        public static Settings fromProperties(java.util.Properties properties) {
+            return new Settings(
+                    intProperty(properties, "db.pool.minSize", 2),
+                    intProperty(properties, "db.pool.maxSize", 10),
+                    longProperty(properties, "db.pool.borrowTimeoutMs", 10_000L),
+                    longProperty(properties, "db.pool.idleTimeoutMs", 300_000L),
+                    longProperty(properties, "db.pool.leakThresholdMs", 60_000L),
+                    longProperty(properties, "db.pool.validationBypassMs", 500L),
+                    intProperty(properties, "db.pool.validationTimeoutSeconds", 2),
+                    longProperty(properties, "db.pool.housekeepingIntervalMs", 30_000L));
+        }
+
+        private static int intProperty(java.util.Properties properties, String key, int defaultValue) {
+            String value = properties.getProperty(key);
+            return value == null || value.trim().isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+        }
+
+        private static long longProperty(java.util.Properties properties, String key, long defaultValue) {
+            String value = properties.getProperty(key);
+            return value == null || value.trim().isEmpty() ? defaultValue : Long.parseLong(value.trim());
+        }
+    }
+
+    /**
+     * Point-in-time snapshot of pool counters.
+     */
+    public static final class Statistics {
+
+        private final int total;
+        private final int idle;
+        private final int active;
+        private final int waiting;
+        private final long borrowed;
+        private final long created;
+        private final long destroyed;
+        private final long timeouts;
+        private final long validationFailures;
+        private final long leaks;
+
+        private Statistics(int total, int idle, int active, int waiting, long borrowed, long created,
+                           long destroyed, long timeouts, long validationFailures, long leaks) {
+            this.total = total;
+            this.idle = idle;
+            this.active = active;
+            this.waiting = waiting;
+            this.borrowed = borrowed;
+            this.created = created;
+            this.destroyed = destroyed;
+            this.timeouts = timeouts;
+            this.validationFailures = validationFailures;
+            this.leaks = leaks;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getWaiting() {
+            return waiting;
+        }
+
+        public long getBorrowed() {
+            return borrowed;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        public long getDestroyed() {
+            return destroyed;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getValidationFailures() {
+            return validationFailures;
+        }
+
+        public long getLeaks() {
+            return leaks;
+        }
+
+        @Override
+        public String toString() {
+            return "PoolStatistics{total=" + total + ", idle=" + idle + ", active=" + active
+                    + ", waiting=" + waiting + ", borrowed=" + borrowed + ", created=" + created
+                    + ", destroyed=" + destroyed + ", timeouts=" + timeouts
+                    + ", validationFailures=" + validationFailures + ", leaks=" + leaks + '}';
+        }
+    }
+}
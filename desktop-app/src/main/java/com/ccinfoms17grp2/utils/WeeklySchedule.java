@@ -0,0 +1,102 @@
+package com.ccinfoms17grp2.utils;
+
+import com.ccinfoms17grp2.utils.AvailabilityParser.AvailabilitySlot;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiled, immutable form of a doctor's weekly availability.
+ * <p>
+ * For each day of the week the slots are merged into sorted, non-overlapping intervals stored as pairs of
+ * nano-of-day values. {@link #isAvailableAt} is a binary search over that day's array and allocates nothing.
+ * The original slots are kept per day, in JSON order, so {@link #getSlots} can return them without copying.
+ * Instances are obtained through {@link AvailabilityParser#compile(String)}, which interns them by JSON text.
+ */
+public final class WeeklySchedule {
+
+    static final WeeklySchedule EMPTY = new WeeklySchedule(List.of());
+
+    private static final int DAYS = DayOfWeek.values().length;
+
+    // bounds[day] = {start0, end0, start1, end1, ...}, both ends inclusive like AvailabilitySlot.isAvailableAt
+    private final long[][] bounds = new long[DAYS][];
+    private final List<List<AvailabilitySlot>> slotsByDay = new ArrayList<>(DAYS);
+
+    WeeklySchedule(List<AvailabilitySlot> slots) {
+        for (int day = 0; day < DAYS; day++) {
+            List<AvailabilitySlot> daySlots = new ArrayList<>();
+            for (AvailabilitySlot slot : slots) {
+                if (slot.getDayOfWeek().ordinal() == day) {
+                    daySlots.add(slot);
+                }
+            }
+            slotsByDay.add(List.copyOf(daySlots));
+            bounds[day] = mergeIntervals(daySlots);
+        }
+    }
+
+    public boolean isAvailableAt(LocalDateTime dateTime) {
+        long[] intervals = bounds[dateTime.getDayOfWeek().ordinal()];
+        long time = dateTime.toLocalTime().toNanoOfDay();
+        // Find the last interval starting at or before the requested time.
+        int low = 0;
+        int high = intervals.length / 2 - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (intervals[mid * 2] <= time) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return candidate >= 0 && time <= intervals[candidate * 2 + 1];
+    }
+
+    /**
+     * Slots for the given day in the order they appear in the JSON. The returned list is unmodifiable.
+     */
+    public List<AvailabilitySlot> getSlots(DayOfWeek dayOfWeek) {
+        return slotsByDay.get(dayOfWeek.ordinal());
+    }
+
+    public boolean isEmpty() {
+        for (long[] intervals : bounds) {
+            if (intervals.length > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] mergeIntervals(List<AvailabilitySlot> daySlots) {
+        long[][] sorted = new long[daySlots.size()][];
+        int count = 0;
+        for (AvailabilitySlot slot : daySlots) {
+            long start = slot.getStartTime().toNanoOfDay();
+            long end = slot.getEndTime().toNanoOfDay();
+            if (start <= end) {
+                sorted[count++] = new long[]{start, end};
+            }
+        }
+        sorted = Arrays.copyOf(sorted, count);
+        Arrays.sort(sorted, (a, b) -> Long.compare(a[0], b[0]));
+
+        long[] merged = new long[count * 2];
+        int size = 0;
+        for (long[] interval : sorted) {
+            if (size > 0 && interval[0] <= merged[size - 1]) {
+                merged[size - 1] = Math.max(merged[size - 1], interval[1]);
+            } else {
+                merged[size++] = interval[0];
+                merged[size++] = interval[1];
+            }
+        }
+        return Arrays.copyOf(merged, size);
+    }
+}
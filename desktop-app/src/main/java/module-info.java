@@ -2,6 +2,7 @@ module com.ccinfoms.desktopapp {
 	requires javafx.controls;
 	requires javafx.fxml;
 	requires javafx.web;
+	requires java.net.http;
 	requires java.sql;
 	requires java.logging;
 	requires java.naming;
@@ -0,0 +1,173 @@
+package com.ccinfoms17grp2;
+
+import com.ccinfoms17grp2.services.RoutingService;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs RoutingService against a local stub of the ORS /matrix endpoint, so no ORS container is needed.
+ * A second service pointed at a closed port checks the outage fallback.
+ * The stub reports distance = 10 km per destination index and duration = 600 s per index, and "no route"
+ * for any destination with latitude 0.
+ */
+public class RoutingServiceTest {
+
+    private static final AtomicInteger MATRIX_REQUESTS = new AtomicInteger();
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Thread stub = new Thread(() -> serve(server), "ors-stub");
+            stub.setDaemon(true);
+            stub.start();
+
+            String baseUrl = "http://127.0.0.1:" + server.getLocalPort() + "/ors/v2";
+            RoutingService service = new RoutingService(baseUrl, true);
+            List<double[]> destinations = Arrays.asList(
+                new double[]{14.5995, 120.9842},
+                new double[]{14.6760, 121.0437},
+                new double[]{0.0, 0.0}
+            );
+
+            System.out.println("Testing matrix request for 3 destinations...");
+            List<RoutingService.RouteResult> first = service.calculateMultipleRoutes(14.55, 121.02, destinations);
+            System.out.println("Results: " + first);
+            check("one matrix request", MATRIX_REQUESTS.get() == 1);
+            check("first distance", first.get(0) != null && first.get(0).getDistanceKm() == 10.0);
+            check("second duration", first.get(1) != null && first.get(1).getDurationMinutes() == 20.0);
+            check("unreachable is null", first.get(2) == null);
+
+            System.out.println("\nTesting nearby origin reuses cached travel times...");
+            List<RoutingService.RouteResult> second = service.calculateMultipleRoutes(14.5501, 121.0201,
+                destinations.subList(0, 2));
+            System.out.println("Results: " + second);
+            check("no new request", MATRIX_REQUESTS.get() == 1);
+            check("cached distance", second.get(1) != null && second.get(1).getDistanceKm() == 20.0);
+
+            System.out.println("\nTesting distant origin misses the cache...");
+            service.calculateMultipleRoutes(10.3157, 123.8854, destinations.subList(0, 1));
+            check("new request", MATRIX_REQUESTS.get() == 2);
+        }
+
+        System.out.println("\nTesting outage falls back to estimates and opens the circuit...");
+        int closedPort;
+        try (ServerSocket unused = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            closedPort = unused.getLocalPort();
+        }
+        RoutingService down = new RoutingService("http://127.0.0.1:" + closedPort + "/ors/v2", true);
+        List<double[]> manila = Arrays.asList(new double[]{14.5995, 120.9842});
+        RoutingService.RouteResult estimate = null;
+        for (int i = 0; i < 3; i++) {
+            estimate = down.calculateMultipleRoutes(14.55, 121.02, manila).get(0);
+        }
+        System.out.println("Result: " + estimate);
+        check("estimate returned", estimate != null && estimate.isEstimated() && estimate.getDistanceKm() > 0);
+        check("circuit open", !down.getCircuitBreaker().isAvailable());
+        long started = System.nanoTime();
+        RoutingService.RouteResult fast = down.calculateMultipleRoutes(14.55, 121.02, manila).get(0);
+        check("fails fast while open", fast.isEstimated() && System.nanoTime() - started < 50_000_000L);
+
+        if (failures > 0) {
+            System.out.println("\n" + failures + " check(s) failed");
+            System.exit(1);
+        }
+        System.out.println("\nAll checks passed");
+    }
+
+    private static void check(String name, boolean passed) {
+        System.out.println((passed ? "PASS: " : "FAIL: ") + name);
+        if (!passed) {
+            failures++;
+        }
+    }
+
+    private static void serve(ServerSocket server) {
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept()) {
+                handle(socket);
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    System.out.println("Stub error: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void handle(Socket socket) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        String requestLine = reader.readLine();
+        int contentLength = 0;
+        String header;
+        while ((header = reader.readLine()) != null && !header.isEmpty()) {
+            if (header.toLowerCase().startsWith("content-length:")) {
+                contentLength = Integer.parseInt(header.substring("content-length:".length()).trim());
+            }
+        }
+        char[] body = new char[contentLength];
+        int read = 0;
+        while (read < contentLength) {
+            int n = reader.read(body, read, contentLength - read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+
+        int status = 404;
+        String response = "{}";
+        if (requestLine != null && requestLine.startsWith("POST /ors/v2/matrix/driving-car")) {
+            MATRIX_REQUESTS.incrementAndGet();
+            status = 200;
+            response = matrixResponse(JsonParser.parseString(new String(body, 0, read)).getAsJsonObject());
+        }
+
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        OutputStream out = socket.getOutputStream();
+        out.write(("HTTP/1.1 " + status + " OK\r\n"
+            + "Content-Type: application/json\r\n"
+            + "Content-Length: " + bytes.length + "\r\n"
+            + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(bytes);
+        out.flush();
+    }
+
+    private static String matrixResponse(JsonObject request) {
+        JsonArray locations = request.getAsJsonArray("locations");
+        JsonArray destinations = request.getAsJsonArray("destinations");
+        JsonArray distanceRow = new JsonArray();
+        JsonArray durationRow = new JsonArray();
+        for (int i = 0; i < destinations.size(); i++) {
+            int index = destinations.get(i).getAsInt();
+            double lat = locations.get(index).getAsJsonArray().get(1).getAsDouble();
+            if (lat == 0.0) {
+                distanceRow.add(JsonNull.INSTANCE);
+                durationRow.add(JsonNull.INSTANCE);
+            } else {
+                distanceRow.add(10.0 * index);
+                durationRow.add(600.0 * index);
+            }
+        }
+        JsonArray distances = new JsonArray();
+        distances.add(distanceRow);
+        JsonArray durations = new JsonArray();
+        durations.add(durationRow);
+        JsonObject response = new JsonObject();
+        response.add("distances", distances);
+        response.add("durations", durations);
+        return response.toString();
+    }
+}